@@ -0,0 +1,79 @@
+package me.samarthh.benchmarks;
+
+import me.samarthh.protection.ProtectedBlockIndex;
+import me.samarthh.storage.BlockPosition;
+import me.samarthh.storage.MarkerSnapshotFile;
+import me.samarthh.storage.MarkerStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Startup load and snapshot save of protected blocks and property IDs (the Main load/save paths)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MarkerStorageBenchmark {
+
+    @Param({"1000", "100000", "500000"})
+    public int markers;
+
+    private Path directory;
+    private Map<String, long[]> blocks;
+    private Map<String, BlockPosition> properties;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("siose-bench");
+        SplittableRandom random = new SplittableRandom(42);
+        ProtectedBlockIndex index = new ProtectedBlockIndex();
+        while (index.size() < markers) {
+            index.add(random.nextBoolean() ? "world" : "world_nether",
+                    random.nextInt(-20_000, 20_000), random.nextInt(-64, 320), random.nextInt(-20_000, 20_000));
+        }
+        blocks = index.snapshot();
+        properties = new HashMap<>();
+        for (int i = 0; i < markers / 4; i++) {
+            properties.put(UUID.randomUUID().toString(), new BlockPosition("world", i, 65, -i));
+        }
+
+        Path dataFolder = Files.createDirectories(directory.resolve("load"));
+        MarkerSnapshotFile.write(dataFolder.resolve("markers.dat"), blocks, properties, List.of());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public ProtectedBlockIndex load() throws Exception {
+        ProtectedBlockIndex index = new ProtectedBlockIndex();
+        MarkerStore store = new MarkerStore(directory.resolve("load"));
+        store.load(index);
+        store.close();
+        return index;
+    }
+
+    @Benchmark
+    public Path saveSnapshot() throws Exception {
+        Path file = directory.resolve("save.dat");
+        MarkerSnapshotFile.write(file, blocks, properties, List.of());
+        return file;
+    }
+}
@@ -0,0 +1,57 @@
+package me.samarthh.benchmarks;
+
+import com.google.gson.Gson;
+import me.samarthh.api.PropertyEntity;
+import me.samarthh.api.SioseApiClient.AuthResponse;
+import me.samarthh.api.SioseApiClient.PropertyRequestResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity JSON built in onBlockPlace and Gson decoding of the API responses.
+ * Decoding uses unshaded Gson of the same version the plugin relocates into its jar.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertyPayloadBenchmark {
+
+    private static final String PROPERTY_REQUEST_RESPONSE = "{\"message\": \"Property request submitted successfully\","
+            + "\"request\": {\"id\": \"8a4c1207-8785-45f9-8698-0913a60926ab\", \"propertyType\": \"HOUSE\","
+            + "\"location\": \"Test Location\", \"price\": 100000, \"description\": \"Test property\","
+            + "\"status\": \"PENDING\", \"createdAt\": \"2023-12-10T12:00:00Z\", \"updatedAt\": \"2023-12-10T12:00:00Z\"}}";
+    private static final String AUTH_RESPONSE = "{\"success\": true, \"message\": \"Logged in\", \"user\": {"
+            + "\"uuid\": \"069a79f4-44e9-4726-a5be-fca90e38aaf5\", \"username\": \"Notch\", \"email\": \"notch@example.com\","
+            + "\"createdAt\": \"2023-12-10T12:00:00Z\", \"role\": \"USER\"}}";
+
+    private final Gson gson = new Gson();
+    public int x = 120;
+    public int y = 64;
+    public int z = -340;
+
+    @Benchmark
+    public String entityJson() {
+        int area = PropertyEntity.area(x, y, z, x + 20, y, z, x, y, z + 15);
+        return PropertyEntity.toJson(x, y, z, x + 20, y, z, x, y, z + 15, area);
+    }
+
+    @Benchmark
+    public String entityJsonStringFormat() {
+        return String.format("{\"coordinates\": [[%d,%d,%d], [%d,%d,%d], [%d,%d,%d]], \"area\": %d}",
+                x, y, z, x + 20, y, z, x, y, z + 15, 300);
+    }
+
+    @Benchmark
+    public PropertyRequestResponse decodePropertyRequestResponse() {
+        return gson.fromJson(PROPERTY_REQUEST_RESPONSE, PropertyRequestResponse.class);
+    }
+
+    @Benchmark
+    public AuthResponse decodeAuthResponse() {
+        return gson.fromJson(AUTH_RESPONSE, AuthResponse.class);
+    }
+}
@@ -0,0 +1,73 @@
+package me.samarthh.benchmarks;
+
+import me.samarthh.protection.ProtectedBlockIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The onBlockBreak protected-block check, for breaks on markers and for ordinary breaks
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProtectedBlockLookupBenchmark {
+
+    private static final int SAMPLES = 4096;
+    private static final int WORLD_RADIUS = 20_000;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int markers;
+
+    private ProtectedBlockIndex index;
+    private int[] hits;
+    private int[] misses;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        index = new ProtectedBlockIndex();
+        hits = new int[SAMPLES * 3];
+        int sample = 0;
+        while (index.size() < markers) {
+            int x = random.nextInt(-WORLD_RADIUS, WORLD_RADIUS);
+            int y = random.nextInt(-64, 320);
+            int z = random.nextInt(-WORLD_RADIUS, WORLD_RADIUS);
+            if (index.add("world", x, y, z) && sample < SAMPLES) {
+                hits[sample * 3] = x;
+                hits[sample * 3 + 1] = y;
+                hits[sample * 3 + 2] = z;
+                sample++;
+            }
+        }
+        for (int i = sample; i < SAMPLES; i++) {
+            System.arraycopy(hits, (i % sample) * 3, hits, i * 3, 3);
+        }
+        // Size the Bloom filter for the loaded markers, as the plugin's periodic check does
+        index.rebuildFilter(Runnable::run, Runnable::run);
+
+        misses = new int[SAMPLES * 3];
+        for (int i = 0; i < SAMPLES; i++) {
+            misses[i * 3] = random.nextInt(-WORLD_RADIUS, WORLD_RADIUS);
+            misses[i * 3 + 1] = random.nextInt(-64, 320);
+            misses[i * 3 + 2] = random.nextInt(-WORLD_RADIUS, WORLD_RADIUS);
+        }
+    }
+
+    @Benchmark
+    public boolean breakProtectedBlock() {
+        int i = (cursor = (cursor + 1) & (SAMPLES - 1)) * 3;
+        return index.contains("world", hits[i], hits[i + 1], hits[i + 2]);
+    }
+
+    @Benchmark
+    public boolean breakOrdinaryBlock() {
+        int i = (cursor = (cursor + 1) & (SAMPLES - 1)) * 3;
+        return index.contains("world", misses[i], misses[i + 1], misses[i + 2]);
+    }
+}
@@ -0,0 +1,83 @@
+package me.samarthh.benchmarks;
+
+import me.samarthh.managers.UserManager;
+import me.samarthh.storage.UserDatabase;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * isAuthenticated/getToken for players with a cached session and for players that need a database read
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserManagerBenchmark {
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    private Path directory;
+    private UserManager userManager;
+    private UUID[] cached;
+    private UUID[] uncached;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("siose-bench");
+        String path = directory.resolve("users.db").toString();
+
+        UserManager writer = new UserManager(new UserDatabase(path));
+        UUID[] all = new UUID[rows];
+        for (int i = 0; i < rows; i++) {
+            all[i] = UUID.randomUUID();
+            writer.setToken(all[i], "token-" + i);
+        }
+        writer.close();
+
+        userManager = new UserManager(new UserDatabase(path));
+        cached = new UUID[Math.min(rows, 500)];
+        for (int i = 0; i < cached.length; i++) {
+            cached[i] = all[i];
+            userManager.loadSessionAsync(cached[i]).join();
+        }
+        uncached = new UUID[Math.min(rows - cached.length, 1000)];
+        System.arraycopy(all, cached.length, uncached, 0, uncached.length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        userManager.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public boolean isAuthenticatedCached() {
+        return userManager.isAuthenticated(cached[ThreadLocalRandom.current().nextInt(cached.length)]);
+    }
+
+    @Benchmark
+    public String getTokenCached() {
+        return userManager.getToken(cached[ThreadLocalRandom.current().nextInt(cached.length)]);
+    }
+
+    @Benchmark
+    public UserManager.Session loadSessionFromDatabase() {
+        // Reads never load synchronously, so measure the background load itself and evict to keep it uncached
+        UUID uuid = uncached[ThreadLocalRandom.current().nextInt(uncached.length)];
+        UserManager.Session session = userManager.loadSessionAsync(uuid).join();
+        userManager.unloadSession(uuid);
+        return session;
+    }
+}
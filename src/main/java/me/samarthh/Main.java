@@ -1,6 +1,8 @@
 package me.samarthh;
 
+import me.samarthh.api.ApiExecutor;
 import me.samarthh.api.CallbackServer;
+import me.samarthh.api.ResponseCache;
 import me.samarthh.api.SioseApiClient;
 import me.samarthh.commands.GetDataCommand;
 import me.samarthh.commands.RegisterCommand;
@@ -8,21 +10,22 @@ import me.samarthh.commands.LoginCommand;
 import me.samarthh.commands.LogoutCommand;
 import me.samarthh.commands.RequestProperty;
 import me.samarthh.listeners.PropertyListener;
+import me.samarthh.listeners.ProtectionListener;
+import me.samarthh.listeners.SessionListener;
+import me.samarthh.managers.PlacementSessionManager;
 import me.samarthh.managers.UserManager;
-import org.bukkit.Bukkit;
-import org.bukkit.Location;
+import me.samarthh.metrics.Metrics;
+import me.samarthh.protection.PropertyRegionIndex;
+import me.samarthh.protection.ProtectedBlockIndex;
+import me.samarthh.storage.BlockPosition;
+import me.samarthh.storage.ChunkMarkerStore;
+import me.samarthh.storage.MarkerStore;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
-import java.io.*;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.IOException;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.UUID;
 
 
 public class Main extends JavaPlugin {
@@ -30,30 +33,54 @@ public class Main extends JavaPlugin {
     private UserManager userManager;
     private PropertyListener propertyListener;
     private CallbackServer callbackServer;
-    private Map<UUID, List<Location>> propertyLocations = new HashMap<>();
-    private Set<Location> unbreakableBlocks = new HashSet<>();
-    private final Path unbreakableBlocksFile;
-    private final Path propertyIdsFile;
-
-    public Main() {
-        this.unbreakableBlocksFile = Paths.get(getDataFolder().getPath(), "unbreakable_blocks.txt");
-        this.propertyIdsFile = Paths.get(getDataFolder().getPath(), "property_ids.txt");
-    }
+    private SioseApiClient apiClient;
+    private final ProtectedBlockIndex unbreakableBlocks = new ProtectedBlockIndex();
+    private final PropertyRegionIndex propertyRegions = new PropertyRegionIndex();
+    private MarkerStore markerStore;
+    private PlacementSessionManager placementSessions;
+    private ChunkMarkerStore chunkMarkerStore;
 
     @Override
     public void onEnable() {
         saveDefaultConfig();
         getLogger().info("Plugin enabled!");
 
-        // Load unbreakable blocks from file
-        loadUnbreakableBlocks();
-
-        // Load property IDs from file
-        Map<String, Location> propertyIdMapping = loadPropertyIds();
+        // Load unbreakable blocks and property IDs, then journal every change from here on
+        markerStore = new MarkerStore(getDataFolder().toPath());
+        Map<String, BlockPosition> propertyIdMapping = loadMarkers();
+        if (getConfig().getString("protection.storage", "file").equalsIgnoreCase("chunk")) {
+            // Protected blocks live in chunk data and are only held in memory while their chunk is loaded
+            // Worlds loaded later migrate their blocks then; the marker file is rewritten without them
+            chunkMarkerStore = new ChunkMarkerStore(this, unbreakableBlocks, () -> markerStore.compact(
+                    chunkMarkerStore.getUnmigratedBlocks(), propertyListener.getPropertyPositions(), propertyRegions.snapshot()));
+            boolean hadFileBlocks = unbreakableBlocks.size() > 0;
+            chunkMarkerStore.migrate();
+            if (hadFileBlocks) {
+                // migrate() has saved the migrated blocks with their worlds; rewrite the snapshot without them
+                // so they are not replayed from the journal again
+                markerStore.compact(chunkMarkerStore.getUnmigratedBlocks(), propertyIdMapping, propertyRegions.snapshot());
+            }
+            unbreakableBlocks.setChangeListener(chunkMarkerStore);
+            getServer().getPluginManager().registerEvents(chunkMarkerStore, this);
+        } else {
+            unbreakableBlocks.setChangeListener(markerStore);
+        }
+        propertyRegions.setChangeListener(markerStore);
 
-        //String baseUrl = getConfig().getString("api.base-url", "http://host.docker.internal:3000");
         userManager = new UserManager();
-        SioseApiClient apiClient = new SioseApiClient();
+        ApiExecutor apiExecutor = ApiExecutor.create(
+                getConfig().getString("api.executor.mode", "bounded"),
+                getConfig().getInt("api.executor.threads", 16),
+                getConfig().getInt("api.executor.queue-size", 256));
+        getLogger().info("API executor mode: " + apiExecutor.getMode() + " (max " + apiExecutor.getMaxCalls() + " calls)");
+        String baseUrl = getConfig().getString("api.base-url", "http://host.docker.internal:3000");
+        apiClient = new SioseApiClient(baseUrl.replaceAll("/+$", "") + "/v1", apiExecutor,
+                getConfig().getInt("api.cache.max-entries", 1024),
+                getConfig().getLong("api.cache.ttl-seconds", 30) * 1000L,
+                getConfig().getLong("api.cache.stale-seconds", 60) * 1000L,
+                getConfig().getInt("api.circuit-breaker.failure-threshold", 5),
+                getConfig().getLong("api.circuit-breaker.open-seconds", 30) * 1000L);
+        getLogger().info("API base URL: " + apiClient.getBaseUrl());
 
         // Register commands
         this.getCommand("getdata").setExecutor(new GetDataCommand(userManager, apiClient));
@@ -63,14 +90,37 @@ public class Main extends JavaPlugin {
         this.getCommand("requestproperty").setExecutor(new RequestProperty(userManager, apiClient));
 
         // Register events
-        propertyListener = new PropertyListener(userManager, propertyLocations, unbreakableBlocks, this, apiClient, propertyIdMapping);
+        placementSessions = new PlacementSessionManager(unbreakableBlocks,
+                getConfig().getLong("placement.idle-timeout-seconds", 600) * 1000L);
+        propertyListener = new PropertyListener(userManager, placementSessions, unbreakableBlocks, propertyRegions, this, apiClient, propertyIdMapping, markerStore);
         getServer().getPluginManager().registerEvents(propertyListener, this);
+        getServer().getPluginManager().registerEvents(new SessionListener(userManager, placementSessions), this);
+        getServer().getPluginManager().registerEvents(new ProtectionListener(unbreakableBlocks), this);
+        for (Player player : getServer().getOnlinePlayers()) {
+            userManager.loadSessionAsync(player.getUniqueId());
+        }
 
         // Start callback server
         int callbackPort = getConfig().getInt("callback.port", 8080);
         String bindAddress = getConfig().getString("callback.bind-address", "0.0.0.0");
-        callbackServer = new CallbackServer(this, propertyListener, callbackPort, bindAddress);
+        callbackServer = new CallbackServer(this, propertyListener, propertyListener.getEventBus(), callbackPort, bindAddress);
         callbackServer.start();
+
+        registerMetrics(apiExecutor);
+
+        // Release the corners of abandoned property placements every 30 seconds
+        getServer().getScheduler().runTaskTimer(this, () -> placementSessions.expireIdle(System.currentTimeMillis()), 600L, 600L);
+
+        // Check every 5 minutes whether the marker journal should be compacted
+        getServer().getScheduler().runTaskTimer(this, this::compactMarkers, 6000L, 6000L);
+
+        // Rebuild the protected block filter off the main thread when it has outgrown its size or gone stale
+        getServer().getScheduler().runTaskTimer(this, () -> {
+            if (unbreakableBlocks.filterNeedsRebuild()) {
+                unbreakableBlocks.rebuildFilter(task -> getServer().getScheduler().runTaskAsynchronously(this, task),
+                        getServer().getScheduler().getMainThreadExecutor(this));
+            }
+        }, 1L, 100L);
     }
 
     /**
@@ -81,118 +131,59 @@ public class Main extends JavaPlugin {
     }
 
     /**
-     * Load unbreakable blocks from file
+     * Gauges sampled when /metrics is scraped
      */
-    private void loadUnbreakableBlocks() {
-        try {
-            if (!Files.exists(unbreakableBlocksFile)) {
-                getLogger().info("No unbreakable blocks file found, starting fresh");
-                return;
-            }
-
-            List<String> lines = Files.readAllLines(unbreakableBlocksFile);
-            for (String line : lines) {
-                if (line.trim().isEmpty()) continue;
-                String[] parts = line.split(",");
-                if (parts.length == 4) {
-                    try {
-                        String worldName = parts[0];
-                        int x = Integer.parseInt(parts[1]);
-                        int y = Integer.parseInt(parts[2]);
-                        int z = Integer.parseInt(parts[3]);
-
-                        Location loc = new Location(Bukkit.getWorld(worldName), x, y, z);
-                        unbreakableBlocks.add(loc);
-                    } catch (NumberFormatException e) {
-                        getLogger().warning("Invalid location format in unbreakable blocks file: " + line);
-                    }
-                }
-            }
-            getLogger().info("Loaded " + unbreakableBlocks.size() + " unbreakable blocks from file");
-        } catch (IOException e) {
-            getLogger().warning("Failed to load unbreakable blocks: " + e.getMessage());
-        }
+    private void registerMetrics(ApiExecutor apiExecutor) {
+        Metrics.gauge("siose_protected_blocks", "Blocks protected from breaking", unbreakableBlocks::size);
+        Metrics.gauge("siose_placement_sessions", "Players part way through placing property corners", placementSessions::size);
+        Metrics.gauge("siose_protection_filter_false_positive_ratio", "Share of unprotected block lookups not rejected by the Bloom filter",
+                unbreakableBlocks::getFilterFalsePositiveRate);
+        Metrics.gauge("siose_registered_properties", "Properties with a registered sign", propertyListener::getRegisteredPropertyCount);
+        Metrics.gauge("siose_sign_update_queue_depth", "Sign status updates waiting for the main thread",
+                () -> propertyListener.getSignUpdateScheduler().getQueueDepth());
+        Metrics.gauge("siose_sign_updates_deferred", "Sign status updates waiting for their chunk to load",
+                () -> propertyListener.getSignUpdateScheduler().getDeferredCount());
+        Metrics.gauge("siose_outbox_pending", "Property requests not yet accepted or rejected by the backend",
+                () -> propertyListener.getOutbox().getPendingCount());
+        Metrics.gauge("siose_db_pending_writes", "User rows queued for the next group commit", userManager::getPendingWriteCount);
+
+        Metrics.gauge("siose_api_executor_active_calls", "API calls currently running", apiExecutor::getActiveCalls);
+        Metrics.gauge("siose_api_executor_queued_calls", "API calls waiting for a dispatcher slot", apiExecutor::getQueueDepth);
+        Metrics.gauge("siose_api_executor_concurrency_limit", "Current adaptive limit on running API calls", apiExecutor::getConcurrencyLimit);
+        Metrics.gauge("siose_api_executor_max_concurrency", "Configured maximum of running API calls", apiExecutor::getMaxConcurrent);
+
+        ResponseCache<?, ?> userCache = apiClient.getUserCache();
+        ResponseCache<?, ?> eligibilityCache = apiClient.getEligibilityCache();
+        String cacheLookups = "siose_api_cache_lookups_total";
+        String cacheHelp = "API response cache lookups per cache and result";
+        Metrics.counterFunction(cacheLookups, cacheHelp, userCache::getHits, "cache", "user", "result", "hit");
+        Metrics.counterFunction(cacheLookups, cacheHelp, userCache::getStaleHits, "cache", "user", "result", "stale");
+        Metrics.counterFunction(cacheLookups, cacheHelp, userCache::getMisses, "cache", "user", "result", "miss");
+        Metrics.counterFunction(cacheLookups, cacheHelp, eligibilityCache::getHits, "cache", "eligibility", "result", "hit");
+        Metrics.counterFunction(cacheLookups, cacheHelp, eligibilityCache::getStaleHits, "cache", "eligibility", "result", "stale");
+        Metrics.counterFunction(cacheLookups, cacheHelp, eligibilityCache::getMisses, "cache", "eligibility", "result", "miss");
     }
 
     /**
-     * Load property IDs mapping from file
+     * Load protected blocks, property sign locations and footprints from the snapshot and journal
      */
-    private Map<String, Location> loadPropertyIds() {
-        Map<String, Location> propertyIdMapping = new HashMap<>();
+    private Map<String, BlockPosition> loadMarkers() {
+        Map<String, BlockPosition> propertyIdMapping = new HashMap<>();
         try {
-            if (!Files.exists(propertyIdsFile)) {
-                getLogger().info("No property IDs file found, starting fresh");
-                return propertyIdMapping;
-            }
-
-            List<String> lines = Files.readAllLines(propertyIdsFile);
-            for (String line : lines) {
-                if (line.trim().isEmpty()) continue;
-                String[] parts = line.split(",");
-                if (parts.length == 5) {
-                    try {
-                        String propertyId = parts[0];
-                        String worldName = parts[1];
-                        int x = Integer.parseInt(parts[2]);
-                        int y = Integer.parseInt(parts[3]);
-                        int z = Integer.parseInt(parts[4]);
-
-                        Location loc = new Location(Bukkit.getWorld(worldName), x, y, z);
-                        propertyIdMapping.put(propertyId, loc);
-                    } catch (NumberFormatException e) {
-                        getLogger().warning("Invalid property ID format in file: " + line);
-                    }
-                }
-            }
-            getLogger().info("Loaded " + propertyIdMapping.size() + " property ID mappings from file");
+            propertyIdMapping = markerStore.load(unbreakableBlocks, propertyRegions);
         } catch (IOException e) {
-            getLogger().warning("Failed to load property IDs: " + e.getMessage());
+            getLogger().warning("Failed to load markers: " + e.getMessage());
         }
         return propertyIdMapping;
     }
 
     /**
-     * Save property IDs mapping to file
-     */
-    private void savePropertyIds() {
-        if (propertyListener == null) return;
-
-        try {
-            // Create data folder if it doesn't exist
-            Files.createDirectories(propertyIdsFile.getParent());
-
-            try (PrintWriter writer = new PrintWriter(new FileWriter(propertyIdsFile.toFile()))) {
-                Set<String> propertyIds = propertyListener.getRegisteredPropertyIds();
-                for (String propertyId : propertyIds) {
-                    Location loc = propertyListener.getPropertyLocation(propertyId);
-                    if (loc != null) {
-                        writer.println(propertyId + "," + loc.getWorld().getName() + "," +
-                                     loc.getBlockX() + "," + loc.getBlockY() + "," + loc.getBlockZ());
-                    }
-                }
-            }
-            getLogger().info("Saved property ID mappings to file");
-        } catch (IOException e) {
-            getLogger().warning("Failed to save property IDs: " + e.getMessage());
-        }
-    }
-
-    /**
-     * Save unbreakable blocks to file
+     * Fold the marker journal into a new snapshot once it has grown large enough
      */
-    private void saveUnbreakableBlocks() {
-        try {
-            // Create data folder if it doesn't exist
-            Files.createDirectories(unbreakableBlocksFile.getParent());
-
-            try (PrintWriter writer = new PrintWriter(new FileWriter(unbreakableBlocksFile.toFile()))) {
-                for (Location loc : unbreakableBlocks) {
-                    writer.println(loc.getWorld().getName() + "," + loc.getBlockX() + "," + loc.getBlockY() + "," + loc.getBlockZ());
-                }
-            }
-            getLogger().info("Saved " + unbreakableBlocks.size() + " unbreakable blocks to file");
-        } catch (IOException e) {
-            getLogger().warning("Failed to save unbreakable blocks: " + e.getMessage());
+    private void compactMarkers() {
+        if (markerStore.needsCompaction()) {
+            Map<String, long[]> blocks = chunkMarkerStore != null ? chunkMarkerStore.getUnmigratedBlocks() : unbreakableBlocks.snapshot();
+            markerStore.compact(blocks, propertyListener.getPropertyPositions(), propertyRegions.snapshot());
         }
     }
 
@@ -205,11 +196,18 @@ public class Main extends JavaPlugin {
             callbackServer.stop();
         }
 
-        // Save unbreakable blocks to file
-        saveUnbreakableBlocks();
+        if (propertyListener != null) {
+            propertyListener.shutdown();
+        }
+
+        // Every change is already journaled; just flush the tail
+        if (markerStore != null) {
+            markerStore.close();
+        }
 
-        // Save property IDs to file
-        savePropertyIds();
+        if (apiClient != null) {
+            apiClient.shutdown();
+        }
 
         if (userManager != null) {
             userManager.close();
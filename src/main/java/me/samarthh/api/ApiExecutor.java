@@ -0,0 +1,166 @@
+package me.samarthh.api;
+
+import okhttp3.Dispatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Execution resources dedicated to API calls so HTTP work never runs on the common ForkJoin pool.
+ * Calls are dispatched by an OkHttp {@link Dispatcher} that runs at most {@code maxConcurrent} calls at once,
+ * either on one virtual thread per call (Java 21+) or on a bounded platform pool. Calls above that limit
+ * wait in the dispatcher without holding a thread, and new calls are rejected immediately once
+ * {@code maxQueued} are waiting.
+ */
+public class ApiExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(ApiExecutor.class);
+
+    public enum Mode { VIRTUAL, BOUNDED }
+
+    private final ExecutorService executorService;
+    private final Dispatcher dispatcher;
+    private final Mode mode;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    // Calls holding a queue slot: reserved before they are enqueued, released once they start or end
+    private final AtomicInteger reservedSlots = new AtomicInteger();
+
+    private ApiExecutor(ExecutorService executorService, Mode mode, int maxConcurrent, int maxQueued) {
+        this.executorService = executorService;
+        this.mode = mode;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.dispatcher = new Dispatcher(executorService);
+        this.dispatcher.setMaxRequests(maxConcurrent);
+        this.dispatcher.setMaxRequestsPerHost(maxConcurrent);
+    }
+
+    /**
+     * Bounded platform thread pool
+     * @param threads Maximum number of calls running at once
+     * @param queueSize Maximum number of calls waiting to run
+     */
+    public static ApiExecutor bounded(int threads, int queueSize) {
+        AtomicInteger threadIds = new AtomicInteger();
+        // The dispatcher already caps running calls at `threads`. It hands the next call to the pool
+        // from a worker that has not returned yet, so the pool must queue that task rather than reject it.
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread thread = new Thread(r, "Siose-API-" + threadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return new ApiExecutor(pool, Mode.BOUNDED, threads, queueSize);
+    }
+
+    /**
+     * One virtual thread per call, falling back to a bounded pool when the JVM has no virtual threads
+     * @param maxConcurrent Maximum number of calls running at once
+     * @param queueSize Maximum number of calls waiting to run
+     */
+    public static ApiExecutor virtual(int maxConcurrent, int queueSize) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return new ApiExecutor((ExecutorService) factory.invoke(null), Mode.VIRTUAL, maxConcurrent, queueSize);
+        } catch (ReflectiveOperationException e) {
+            logger.warn("Virtual threads require Java 21+, falling back to a bounded API executor");
+            return bounded(Math.min(maxConcurrent, 16), queueSize);
+        }
+    }
+
+    /**
+     * Create an executor from the configured mode name ("virtual" or "bounded")
+     */
+    public static ApiExecutor create(String mode, int threads, int queueSize) {
+        if ("virtual".equalsIgnoreCase(mode)) {
+            return virtual(threads, queueSize);
+        }
+        return bounded(threads, queueSize);
+    }
+
+    Dispatcher dispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * Reserve a queue slot for a call about to be enqueued. Checking and taking the slot is one atomic step,
+     * so concurrent callers cannot overfill the queue.
+     * @return Whether a slot was free; if so it must be released with {@link #releaseQueueSlot()}
+     */
+    boolean tryReserveQueueSlot() {
+        if (reservedSlots.incrementAndGet() > maxQueued) {
+            reservedSlots.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Free a slot taken by {@link #tryReserveQueueSlot()}, when the call starts running or ends without starting
+     */
+    void releaseQueueSlot() {
+        reservedSlots.decrementAndGet();
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Number of calls waiting to start
+     */
+    public int getQueueDepth() {
+        return dispatcher.queuedCallsCount();
+    }
+
+    /**
+     * Number of calls currently running
+     */
+    public int getActiveCalls() {
+        return dispatcher.runningCallsCount();
+    }
+
+    /**
+     * Maximum number of calls running at once
+     */
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    /**
+     * Lower (or restore) the number of calls the dispatcher runs at once, up to {@link #getMaxConcurrent()}
+     */
+    void setConcurrencyLimit(int limit) {
+        int bounded = Math.max(1, Math.min(maxConcurrent, limit));
+        dispatcher.setMaxRequests(bounded);
+        dispatcher.setMaxRequestsPerHost(bounded);
+    }
+
+    /**
+     * Number of calls the dispatcher currently runs at once
+     */
+    public int getConcurrencyLimit() {
+        return dispatcher.getMaxRequests();
+    }
+
+    public int getMaxCalls() {
+        return maxConcurrent + maxQueued;
+    }
+
+    public void shutdown() {
+        dispatcher.cancelAll();
+        executorService.shutdown();
+        try {
+            if (!executorService.awaitTermination(5, TimeUnit.SECONDS)) {
+                executorService.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executorService.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package me.samarthh.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Tails property_callbacks.json on a background thread and hands every complete "propertyId:status" line
+ * to a sink. The read offset is kept in a sidecar file so lines are not replayed after a restart.
+ * Once every line has been consumed the file is renamed aside, drained of lines appended during the rename
+ * and deleted, so it does not grow without bound; writers create it again with their next line.
+ * The offset is stored with a checksum of the bytes just before it; if the file shrinks or those bytes change
+ * (truncated and rewritten, or replaced), reading restarts from the beginning.
+ */
+public class CallbackFileWatcher {
+    private static final Logger logger = LoggerFactory.getLogger(CallbackFileWatcher.class);
+    private static final long POLL_INTERVAL_MS = 1000;
+    private static final int MAX_READ = 1 << 20;
+    private static final int FINGERPRINT_BYTES = 64;
+    private static final long UNKNOWN_FINGERPRINT = -1;
+
+    private final Path file;
+    private final Path rotatedFile;
+    private final Path offsetFile;
+    private final BiConsumer<String, String> sink;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private WatchService watchService;
+    private long offset;
+    private long fingerprint;
+    // The bytes just before the offset (at most FINGERPRINT_BYTES), as last read
+    private byte[] tail = new byte[0];
+    // Inside a line longer than MAX_READ; everything up to the next newline is discarded
+    private boolean skippingLine;
+
+    /**
+     * @param file File to tail
+     * @param sink Receives (propertyId, status) for every line; called on the watcher thread
+     */
+    public CallbackFileWatcher(Path file, BiConsumer<String, String> sink) {
+        this.file = file;
+        this.rotatedFile = file.resolveSibling(file.getFileName() + ".consumed");
+        this.offsetFile = file.resolveSibling(file.getFileName() + ".offset");
+        this.sink = sink;
+        this.thread = new Thread(this::run, "Siose-Callback-Watcher");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        try {
+            Files.createDirectories(file.getParent());
+            loadOffset();
+            watchService = file.getFileSystem().newWatchService();
+            file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException | NumberFormatException e) {
+            // Without a watch service we still poll the file every second
+            logger.warn("Failed to watch {}: {}", file, e.getMessage());
+        }
+        thread.start();
+    }
+
+    private void loadOffset() throws IOException {
+        if (!Files.exists(offsetFile)) {
+            return;
+        }
+        String[] parts = Files.readString(offsetFile).trim().split("\\s+");
+        offset = Long.parseLong(parts[0]);
+        // Offset files of older versions have no checksum; trust the offset once
+        fingerprint = parts.length > 1 ? Long.parseLong(parts[1]) : UNKNOWN_FINGERPRINT;
+    }
+
+    private void saveOffset() throws IOException {
+        Files.writeString(offsetFile, offset + " " + fingerprint);
+    }
+
+    private void run() {
+        // A rotation interrupted by a restart is finished first; the stored offset belongs to the rotated file
+        if (Files.exists(rotatedFile)) {
+            drainRotated();
+        }
+        while (running) {
+            readNewLines();
+            try {
+                if (watchService == null) {
+                    Thread.sleep(POLL_INTERVAL_MS);
+                    continue;
+                }
+                // Wake up on change events, or poll once a second in case an event was missed
+                WatchKey key = watchService.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                break;
+            }
+        }
+    }
+
+    private void readNewLines() {
+        long size;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            size = channel.size();
+            if (offset > 0) {
+                byte[] current = size < offset ? null : readTail(channel, offset);
+                if (current == null || (fingerprint != UNKNOWN_FINGERPRINT && checksum(current) != fingerprint)) {
+                    logger.info("{} was truncated or replaced, reading it from the beginning", file.getFileName());
+                    reset();
+                } else {
+                    tail = current;
+                }
+            }
+            consume(channel, size);
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (IOException e) {
+            logger.warn("Failed to read callbacks: {}", e.getMessage());
+            return;
+        }
+
+        if (size > 0 && offset == size && !skippingLine) {
+            rotate();
+        }
+    }
+
+    /**
+     * Hand every complete line between the offset and end to the sink and advance the offset past them;
+     * a partially written last line is left for the next read
+     */
+    private void consume(FileChannel channel, long end) throws IOException {
+        long start = offset;
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(Math.max(end - offset, 0), MAX_READ));
+        while (offset < end) {
+            buffer.clear();
+            buffer.limit((int) Math.min(end - offset, MAX_READ));
+            channel.position(offset);
+            while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+                // Fill the buffer
+            }
+
+            byte[] bytes = buffer.array();
+            int read = buffer.position();
+            int lineStart = 0;
+            for (int i = 0; i < read; i++) {
+                if (bytes[i] == '\n') {
+                    if (skippingLine) {
+                        skippingLine = false;
+                    } else {
+                        handleLine(new String(bytes, lineStart, i - lineStart, StandardCharsets.UTF_8));
+                    }
+                    lineStart = i + 1;
+                }
+            }
+
+            if (lineStart > 0) {
+                advance(bytes, lineStart);
+            } else if (read == MAX_READ) {
+                // No newline in a full buffer: the line can never be read whole, so drop it
+                if (!skippingLine) {
+                    logger.warn("Skipping callback line longer than {} bytes at offset {}", MAX_READ, offset);
+                    skippingLine = true;
+                }
+                advance(bytes, read);
+            } else {
+                break;
+            }
+        }
+        if (offset != start) {
+            fingerprint = checksum(tail);
+            saveOffset();
+        }
+    }
+
+    /**
+     * Move the offset past the first length bytes of a buffer read at the offset, remembering the last of them.
+     * The fingerprint comes from the bytes that were consumed, not from a later read that could see a rewrite.
+     */
+    private void advance(byte[] bytes, int length) {
+        offset += length;
+        int fromBuffer = Math.min(length, FINGERPRINT_BYTES);
+        int fromTail = Math.min(tail.length, FINGERPRINT_BYTES - fromBuffer);
+        byte[] updated = new byte[fromTail + fromBuffer];
+        System.arraycopy(tail, tail.length - fromTail, updated, 0, fromTail);
+        System.arraycopy(bytes, length - fromBuffer, updated, fromTail, fromBuffer);
+        tail = updated;
+    }
+
+    private void reset() {
+        offset = 0;
+        fingerprint = 0;
+        tail = new byte[0];
+        skippingLine = false;
+    }
+
+    /**
+     * Move the fully consumed file aside, read whatever was appended before the move, then delete it
+     */
+    private void rotate() {
+        try {
+            Files.move(file, rotatedFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // E.g. a writer holds the file open on Windows; try again after the next read
+            logger.debug("Could not rotate {}: {}", file.getFileName(), e.getMessage());
+            return;
+        }
+        drainRotated();
+    }
+
+    private void drainRotated() {
+        try {
+            try (FileChannel channel = FileChannel.open(rotatedFile, StandardOpenOption.READ)) {
+                long size = channel.size();
+                consume(channel, size);
+                if (offset < size) {
+                    logger.warn("Discarding {} bytes of an incomplete callback line", size - offset);
+                }
+            }
+            Files.delete(rotatedFile);
+            reset();
+            saveOffset();
+        } catch (IOException e) {
+            logger.warn("Failed to finish reading {}: {}", rotatedFile.getFileName(), e.getMessage());
+        }
+    }
+
+    /**
+     * The bytes just before the offset, used to recognise the file the offset belongs to
+     * @return The bytes, or null if the file ends before the offset
+     */
+    private static byte[] readTail(FileChannel channel, long offset) throws IOException {
+        int length = (int) Math.min(offset, FINGERPRINT_BYTES);
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        long position = offset - length;
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return null;
+            }
+        }
+        return buffer.array();
+    }
+
+    private static long checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+    private void handleLine(String line) {
+        if (line.trim().isEmpty()) return;
+        // Simple parsing: propertyId:status
+        String[] parts = line.split(":");
+        if (parts.length == 2) {
+            sink.accept(parts[0].trim(), parts[1].trim());
+        } else {
+            logger.warn("Ignoring malformed callback line: {}", line);
+        }
+    }
+
+    public void stop() {
+        running = false;
+        try {
+            if (watchService != null) {
+                watchService.close();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to close watch service: {}", e.getMessage());
+        }
+        thread.interrupt();
+    }
+}
@@ -0,0 +1,79 @@
+package me.samarthh.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Minimal HTTP server abstraction the callback server's routes are written against,
+ * so the transport can be swapped (or run in tests) without touching the handlers.
+ * Instances are independent; several can run in one JVM.
+ */
+public interface CallbackHttpEngine {
+
+    /**
+     * Register a handler for an exact path and method. Must be called before {@link #start}.
+     */
+    void route(String method, String path, Handler handler);
+
+    /**
+     * Called after every request with the matched route (or "unmatched"), status and duration
+     */
+    void setRequestObserver(RequestObserver observer);
+
+    /**
+     * @param port Port to listen on, 0 for any free port
+     */
+    void start(String bindAddress, int port) throws IOException;
+
+    void stop();
+
+    /**
+     * Port the engine is listening on (useful after starting on port 0)
+     */
+    int getPort();
+
+    @FunctionalInterface
+    interface Handler {
+        void handle(Exchange exchange) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface RequestObserver {
+        void completed(String route, String method, int status, long durationNanos);
+    }
+
+    /**
+     * One request/response pair. A handler must finish with exactly one call to
+     * {@link #send} or {@link #stream}.
+     */
+    interface Exchange {
+        String method();
+
+        String path();
+
+        /**
+         * First value of a query parameter, or null
+         */
+        String query(String name);
+
+        /**
+         * First value of a request header (case-insensitive), or null
+         */
+        String header(String name);
+
+        InputStream body();
+
+        String bodyAsString() throws IOException;
+
+        void setHeader(String name, String value);
+
+        void send(int status, String contentType, String body) throws IOException;
+
+        /**
+         * Send headers now and return a stream for a body of unknown length (chunked).
+         * The engine closes the stream when the handler returns.
+         */
+        OutputStream stream(int status, String contentType) throws IOException;
+    }
+}
@@ -1,26 +1,64 @@
 package me.samarthh.api;
 
 import com.google.gson.Gson;
-import me.samarthh.listeners.PropertyListener;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
+import me.samarthh.metrics.Counter;
+import me.samarthh.metrics.Histogram;
+import me.samarthh.metrics.Metrics;
 import org.bukkit.plugin.Plugin;
-import spark.Spark;
 
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Logger;
 
 /**
- * HTTP callback server for receiving property status updates from external services
+ * HTTP callback server for receiving property status updates from external services.
+ * Routes are served by a {@link CallbackHttpEngine}; each instance owns its own engine.
  */
 public class CallbackServer {
 
-    private final Plugin plugin;
-    private final PropertyListener propertyListener;
+    private static final int MAX_BATCH_SIZE = 100_000;
+    private static final String JSON = "application/json";
+    private static final long HEARTBEAT_SECONDS = 15;
+
+    private final Logger logger;
+    private final PropertyStatusReceiver propertyListener;
+    private final PropertyEventBus eventBus;
+    private final CallbackHttpEngine engine;
     private final Gson gson;
     private final int port;
     private final String bindAddress;
+    // Prefixes list ETags; the list version restarts at 0 on every start, so a tag from an earlier run must not match
+    private final Map<String, RouteMetrics> routeMetrics = new ConcurrentHashMap<>();
+    private final String etagEpoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+
+    public CallbackServer(Plugin plugin, PropertyStatusReceiver propertyListener, PropertyEventBus eventBus, int port, String bindAddress) {
+        this(plugin.getLogger(), propertyListener, eventBus, new JdkHttpEngine(), port, bindAddress);
+    }
 
-    public CallbackServer(Plugin plugin, PropertyListener propertyListener, int port, String bindAddress) {
-        this.plugin = plugin;
+    public CallbackServer(Logger logger, PropertyStatusReceiver propertyListener, PropertyEventBus eventBus,
+                          CallbackHttpEngine engine, int port, String bindAddress) {
+        this.logger = logger;
         this.propertyListener = propertyListener;
+        this.eventBus = eventBus;
+        this.engine = engine;
         this.gson = new Gson();
         this.port = port;
         this.bindAddress = bindAddress;
@@ -30,98 +68,315 @@ public class CallbackServer {
      * Start the HTTP callback server
      */
     public void start() {
-        // Bind to specified address to be accessible from outside Docker
-        Spark.ipAddress(bindAddress);
-        Spark.port(port);
-
-        plugin.getLogger().info("Starting callback server on " + bindAddress + ":" + port);
-
-        // Enable CORS for frontend requests
-        Spark.before((request, response) -> {
-            response.header("Access-Control-Allow-Origin", "*");
-            response.header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
-            response.header("Access-Control-Allow-Headers", "Content-Type, Authorization");
-        });
+        logger.info("Starting callback server on " + bindAddress + ":" + port);
 
-        // Handle preflight OPTIONS requests
-        Spark.options("/*", (request, response) -> {
-            response.status(200);
-            return "";
+        // Record rate and latency of every request, including failed ones
+        engine.setRequestObserver((route, method, status, durationNanos) -> {
+            RouteMetrics metrics = routeMetrics.get(route);
+            if (metrics == null) {
+                metrics = routeMetrics.computeIfAbsent(route, RouteMetrics::new);
+            }
+            metrics.requests(method, status).inc();
+            metrics.latency.observeNanos(durationNanos);
         });
 
         // POST endpoint for property status updates
-        Spark.post("/api/property/status", (request, response) -> {
+        engine.route("POST", "/api/property/status", exchange -> {
+            String body = exchange.bodyAsString();
             try {
-                response.type("application/json");
-
                 // Parse JSON body
-                PropertyStatusRequest statusRequest = gson.fromJson(request.body(), PropertyStatusRequest.class);
+                PropertyStatusRequest statusRequest = gson.fromJson(body, PropertyStatusRequest.class);
 
                 if (statusRequest == null || statusRequest.getPropertyId() == null || statusRequest.getStatus() == null) {
-                    plugin.getLogger().warning("Invalid callback request: missing propertyId or status");
-                    response.status(400);
-                    return gson.toJson(Map.of("error", "Invalid request body. Required: propertyId and status"));
+                    logger.warning("Invalid callback request: missing propertyId or status");
+                    exchange.send(400, JSON, gson.toJson(Map.of("error", "Invalid request body. Required: propertyId and status")));
+                    return;
                 }
 
-                plugin.getLogger().info("Processing callback request for property " + statusRequest.getPropertyId() +
+                logger.info("Processing callback request for property " + statusRequest.getPropertyId() +
                                       " with status: " + statusRequest.getStatus());
 
-                // Update property status (this is now thread-safe due to the fix in PropertyListener)
+                // Queued for the main thread by the listener
                 propertyListener.receivePropertyStatusUpdate(statusRequest.getPropertyId(), statusRequest.getStatus());
 
-                response.status(200);
-                return gson.toJson(Map.of("success", true, "message", "Property status updated"));
+                exchange.send(200, JSON, gson.toJson(Map.of("success", true, "message", "Property status updated")));
 
-            } catch (Exception e) {
-                plugin.getLogger().warning("Error processing callback request: " + e.getMessage());
-                plugin.getLogger().warning("Request body: " + request.body());
-                response.status(500);
-                return gson.toJson(Map.of("error", "Internal server error: " + e.getMessage()));
+            } catch (RuntimeException e) {
+                logger.warning("Error processing callback request: " + e.getMessage());
+                logger.warning("Request body: " + body);
+                exchange.send(500, JSON, gson.toJson(Map.of("error", "Internal server error: " + e.getMessage())));
             }
         });
 
-        // GET endpoint to list all registered properties
-        Spark.get("/api/property/list", (request, response) -> {
-            try {
-                response.type("application/json");
-
-                var propertyIds = propertyListener.getRegisteredPropertyIds();
-                return gson.toJson(Map.of("properties", propertyIds));
-
-            } catch (Exception e) {
-                plugin.getLogger().warning("Error listing properties: " + e.getMessage());
-                response.status(500);
-                return gson.toJson(Map.of("error", "Internal server error"));
+        // POST endpoint for bulk property status updates (JSON array or NDJSON)
+        engine.route("POST", "/api/property/status/batch", exchange -> {
+            try (InputStream body = exchange.body()) {
+                BatchResult result = processBatch(body);
+                exchange.send(result.statusCode, JSON, gson.toJson(result.body));
+            } catch (RuntimeException e) {
+                logger.warning("Error processing batch callback request: " + e.getMessage());
+                exchange.send(500, JSON, gson.toJson(Map.of("error", "Internal server error: " + e.getMessage())));
             }
         });
 
+        // GET endpoint to list registered properties (?limit=&cursor= for paging)
+        engine.route("GET", "/api/property/list", this::listProperties);
+
+        // Server-Sent Events feed of registrations and status changes (resumes from Last-Event-ID)
+        engine.route("GET", "/api/property/events", this::streamEvents);
+
         // Health check endpoint
-        Spark.get("/health", (request, response) -> {
-            response.type("application/json");
-            return gson.toJson(Map.of("status", "healthy", "timestamp", System.currentTimeMillis()));
-        });
+        engine.route("GET", "/health", exchange ->
+                exchange.send(200, JSON, gson.toJson(Map.of("status", "healthy", "timestamp", System.currentTimeMillis()))));
+
+        // Prometheus scrape endpoint
+        engine.route("GET", "/metrics", exchange ->
+                exchange.send(200, "text/plain; version=0.0.4; charset=utf-8", Metrics.scrape()));
 
         // Debug endpoint to test connectivity
-        Spark.get("/debug", (request, response) -> {
-            response.type("application/json");
-            return gson.toJson(Map.of(
-                "server", "Siose Minecraft Plugin",
-                "port", port,
-                "bindAddress", bindAddress,
-                "registeredProperties", propertyListener.getRegisteredPropertyIds().size(),
-                "timestamp", System.currentTimeMillis()
-            ));
-        });
+        engine.route("GET", "/debug", exchange ->
+                exchange.send(200, JSON, gson.toJson(Map.of(
+                        "server", "Siose Minecraft Plugin",
+                        "port", getPort(),
+                        "bindAddress", bindAddress,
+                        "registeredProperties", propertyListener.getRegisteredPropertyCount(),
+                        "eventSubscribers", eventBus.getSubscriberCount(),
+                        "timestamp", System.currentTimeMillis()
+                ))));
+
+        try {
+            engine.start(bindAddress, port);
+            logger.info("Callback server started on port " + getPort());
+        } catch (IOException e) {
+            logger.severe("Failed to start callback server on " + bindAddress + ":" + port + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stream registered property IDs as {"properties": [...], "nextCursor": ...}.
+     * Without a limit every ID is returned; with one, nextCursor is passed back as cursor to get the next page
+     * and is null on the last page. The ETag is the registration version within this server instance,
+     * so unchanged lists answer 304.
+     */
+    private void listProperties(CallbackHttpEngine.Exchange exchange) throws IOException {
+        // Read before iterating: a registration during the walk then makes the next poll miss the ETag
+        String etag = "\"" + etagEpoch + "-" + propertyListener.getPropertyListVersion() + "\"";
+        exchange.setHeader("ETag", etag);
+        if (matchesEtag(exchange.header("If-None-Match"), etag)) {
+            exchange.send(304, JSON, "");
+            return;
+        }
+
+        int limit;
+        try {
+            String limitParam = exchange.query("limit");
+            limit = limitParam == null ? Integer.MAX_VALUE : Integer.parseInt(limitParam);
+        } catch (NumberFormatException e) {
+            limit = -1;
+        }
+        if (limit < 1) {
+            exchange.send(400, JSON, gson.toJson(Map.of("error", "limit must be a positive integer")));
+            return;
+        }
+        String cursor = exchange.query("cursor");
+
+        Iterator<String> propertyIds = propertyListener.registeredPropertyIdsAfter(cursor);
+        try (JsonWriter writer = new JsonWriter(new BufferedWriter(
+                new OutputStreamWriter(exchange.stream(200, JSON), StandardCharsets.UTF_8), 8192))) {
+            writer.beginObject();
+            writer.name("properties").beginArray();
+            String last = null;
+            int written = 0;
+            while (written < limit && propertyIds.hasNext()) {
+                last = propertyIds.next();
+                writer.value(last);
+                written++;
+            }
+            writer.endArray();
+            writer.name("nextCursor");
+            if (limit != Integer.MAX_VALUE && propertyIds.hasNext()) {
+                writer.value(last);
+            } else {
+                writer.nullValue();
+            }
+            writer.endObject();
+        }
+    }
+
+    /**
+     * Push property events to one subscriber until it disconnects or the server stops.
+     * Each event carries the bus's event ID as the SSE id, so a reconnecting client resumes after the last one it saw
+     * (Last-Event-ID header, or ?lastEventId= for clients that cannot set headers). If events were lost because the
+     * client fell behind, resumed too late or resumed across a server restart, a "reset" event tells it to reload
+     * /api/property/list.
+     */
+    private void streamEvents(CallbackHttpEngine.Exchange exchange) throws IOException {
+        String header = exchange.header("Last-Event-ID");
+        String lastEventId = header != null ? header : exchange.query("lastEventId");
+
+        PropertyEventBus.Subscription subscription = eventBus.subscribe(lastEventId == null ? null : lastEventId.trim());
+        if (subscription == null) {
+            // Every subscriber holds a server thread, so the count is capped
+            exchange.setHeader("Retry-After", Long.toString(HEARTBEAT_SECONDS));
+            exchange.send(503, JSON, gson.toJson(Map.of("error", "Too many event subscribers")));
+            return;
+        }
+
+        exchange.setHeader("Cache-Control", "no-cache");
+        try (subscription; BufferedWriter writer = new BufferedWriter(
+                new OutputStreamWriter(exchange.stream(200, "text/event-stream; charset=utf-8"), StandardCharsets.UTF_8))) {
+            writer.write("retry: " + TimeUnit.SECONDS.toMillis(HEARTBEAT_SECONDS) + "\n\n");
+            if (subscription.takeRestarted()) {
+                // Whatever the client missed before the restart is gone; the history of this start follows
+                writer.write("event: reset\ndata: " + gson.toJson(Map.of("dropped", subscription.takeDropped(), "restarted", true)) + "\n\n");
+            }
+            writer.flush();
+            while (true) {
+                List<PropertyEventBus.Event> events = subscription.poll(HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+                if (events == null) {
+                    return;
+                }
+                long dropped = subscription.takeDropped();
+                if (dropped > 0) {
+                    writer.write("event: reset\ndata: " + gson.toJson(Map.of("dropped", dropped)) + "\n\n");
+                }
+                for (PropertyEventBus.Event event : events) {
+                    writer.write("id: " + eventBus.idOf(event) + "\nevent: " + event.type() + "\ndata: " + gson.toJson(event) + "\n\n");
+                }
+                if (events.isEmpty() && dropped == 0) {
+                    // Comment line; keeps proxies from timing out the idle connection
+                    writer.write(": heartbeat\n\n");
+                }
+                writer.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.fine("Event subscriber disconnected: " + e.getMessage());
+        }
+    }
+
+    private static boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Port the server is listening on, or -1 if it is not running
+     */
+    public int getPort() {
+        return engine.getPort();
+    }
+
+    /**
+     * Parse a batch of status updates with a streaming reader and hand all valid ones to the listener at once.
+     * Accepts a JSON array of {"propertyId", "status"} objects or the same objects as NDJSON.
+     */
+    private BatchResult processBatch(InputStream body) throws IOException {
+        Map<String, String> updates = new LinkedHashMap<>();
+        List<Map<String, Object>> results = new ArrayList<>();
+        int rejected = 0;
+
+        JsonReader reader = new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        reader.setLenient(true); // allows several top-level values (NDJSON)
+        try {
+            boolean array = reader.peek() == JsonToken.BEGIN_ARRAY;
+            if (array) {
+                reader.beginArray();
+            }
+            while (array ? reader.hasNext() : reader.peek() != JsonToken.END_DOCUMENT) {
+                if (results.size() >= MAX_BATCH_SIZE) {
+                    return new BatchResult(413, Map.of("error", "Batch too large. Maximum is " + MAX_BATCH_SIZE + " updates"));
+                }
+
+                String propertyId = null;
+                String status = null;
+                if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String name = reader.nextName();
+                        if (reader.peek() == JsonToken.STRING && name.equals("propertyId")) {
+                            propertyId = reader.nextString();
+                        } else if (reader.peek() == JsonToken.STRING && name.equals("status")) {
+                            status = reader.nextString();
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                } else {
+                    reader.skipValue();
+                }
+
+                String result;
+                if (propertyId == null || status == null) {
+                    result = "invalid";
+                } else if (!propertyListener.isRegisteredProperty(propertyId)) {
+                    result = "unknown_property";
+                } else {
+                    result = "accepted";
+                    updates.put(propertyId, status);
+                }
+                if (!result.equals("accepted")) {
+                    rejected++;
+                }
 
-        plugin.getLogger().info("Callback server started on port " + port);
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("index", results.size());
+                if (propertyId != null) {
+                    item.put("propertyId", propertyId);
+                }
+                item.put("result", result);
+                results.add(item);
+            }
+            if (array) {
+                reader.endArray();
+            }
+        } catch (MalformedJsonException | IllegalStateException | EOFException e) {
+            return new BatchResult(400, Map.of("error", "Malformed batch at item " + results.size() + ": " + e.getMessage()));
+        }
+
+        // One hand-off for the whole batch; duplicates within the batch keep the last status
+        propertyListener.receivePropertyStatusUpdates(updates);
+        logger.info("Processed batch callback: " + (results.size() - rejected) + " accepted, " + rejected + " rejected");
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("success", true);
+        response.put("accepted", results.size() - rejected);
+        response.put("rejected", rejected);
+        response.put("results", results);
+        return new BatchResult(200, response);
+    }
+
+    private static final class BatchResult {
+        private final int statusCode;
+        private final Map<String, Object> body;
+
+        private BatchResult(int statusCode, Map<String, ?> body) {
+            this.statusCode = statusCode;
+            this.body = new LinkedHashMap<>(body);
+        }
     }
 
     /**
      * Stop the HTTP callback server
      */
     public void stop() {
-        Spark.stop();
-        plugin.getLogger().info("Callback server stopped");
+        // Release subscribers first; their handlers would otherwise hold the engine's threads
+        eventBus.closeAll();
+        engine.stop();
+        logger.info("Callback server stopped");
     }
 
     /**
@@ -147,4 +402,40 @@ public class CallbackServer {
             this.status = status;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Metric children of one route, resolved on first use so requests don't build label strings
+     */
+    private static final class RouteMetrics {
+        private static final String REQUESTS = "siose_callback_requests_total";
+        private static final String REQUESTS_HELP = "Callback server requests per route, method and status";
+
+        private final String route;
+        private final Histogram latency;
+        // Counters per method, indexed by status code
+        private final Map<String, AtomicReferenceArray<Counter>> requests = new ConcurrentHashMap<>();
+
+        private RouteMetrics(String route) {
+            this.route = route;
+            this.latency = Metrics.histogram("siose_callback_request_duration_seconds",
+                    "Callback server request latency per route", "route", route);
+        }
+
+        Counter requests(String method, int status) {
+            if (status < 100 || status > 599) {
+                return Metrics.counter(REQUESTS, REQUESTS_HELP, "route", route, "method", method, "code", Integer.toString(status));
+            }
+            AtomicReferenceArray<Counter> byStatus = requests.get(method);
+            if (byStatus == null) {
+                byStatus = requests.computeIfAbsent(method, key -> new AtomicReferenceArray<>(600));
+            }
+            Counter counter = byStatus.get(status);
+            if (counter == null) {
+                // The registry returns the same child to racing threads
+                counter = Metrics.counter(REQUESTS, REQUESTS_HELP, "route", route, "method", method, "code", Integer.toString(status));
+                byStatus.set(status, counter);
+            }
+            return counter;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package me.samarthh.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Circuit breaker for one API endpoint.
+ * After {@code failureThreshold} consecutive failures the breaker opens and calls fail fast for
+ * {@code openMillis}. It then lets a single probe call through (half-open); the probe's outcome
+ * closes the breaker again or re-opens it. Outcomes of calls that started before the breaker last
+ * opened are stale and ignored, so a slow call cannot close the breaker behind the probe's back.
+ */
+public class CircuitBreaker {
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private boolean opened;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    /**
+     * @param name Endpoint name used in logs
+     * @param failureThreshold Consecutive failures that open the breaker
+     * @param openMillis How long the breaker stays open before a probe is allowed
+     */
+    public CircuitBreaker(String name, int failureThreshold, long openMillis) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openMillis * 1_000_000L;
+    }
+
+    /**
+     * Whether a call may be sent now. Every permitted call must be followed by
+     * {@link #onSuccess(long)}, {@link #onFailure(long)} or {@link #onIgnored(long)}, passing the
+     * {@link System#nanoTime()} read just before this method was called.
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAt < openNanos) {
+                    return false;
+                }
+                transition(State.HALF_OPEN);
+                probeInFlight = true;
+                return true;
+            default:
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+        }
+    }
+
+    /**
+     * @param startedAt {@link System#nanoTime()} read before the call was permitted
+     */
+    public synchronized void onSuccess(long startedAt) {
+        if (isStale(startedAt)) {
+            return;
+        }
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+            transition(State.CLOSED);
+        }
+    }
+
+    /**
+     * @param startedAt {@link System#nanoTime()} read before the call was permitted
+     */
+    public synchronized void onFailure(long startedAt) {
+        if (isStale(startedAt)) {
+            return;
+        }
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            probeInFlight = false;
+            opened = true;
+            openedAt = System.nanoTime();
+            transition(State.OPEN);
+        }
+    }
+
+    /**
+     * The permitted call ended without telling anything about the endpoint (e.g. it was cancelled)
+     * @param startedAt {@link System#nanoTime()} read before the call was permitted
+     */
+    public synchronized void onIgnored(long startedAt) {
+        if (!isStale(startedAt) && state == State.HALF_OPEN) {
+            probeInFlight = false;
+        }
+    }
+
+    public synchronized State getState() {
+        // An expired open breaker reports half-open even before the next call probes it
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The call was permitted before the breaker last opened, so it is not the probe and its outcome is old news
+     */
+    private boolean isStale(long startedAt) {
+        return opened && startedAt - openedAt < 0;
+    }
+
+    private void transition(State next) {
+        logger.info("Circuit breaker for {} {} -> {}", name, state, next);
+        state = next;
+    }
+}
@@ -0,0 +1,75 @@
+package me.samarthh.api;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Adaptive limit on concurrent API calls (additive increase, multiplicative decrease).
+ * The limit grows by about one per limit's worth of healthy calls and shrinks by 10% when a call fails
+ * or when recent latency rises above {@code tolerance} times the long-term latency, so a slowing backend
+ * gets fewer concurrent calls before it starts timing out. Calls above the limit wait in the dispatcher queue.
+ */
+public class ConcurrencyLimiter {
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double SHORT_SMOOTHING = 0.1;
+    private static final double LONG_SMOOTHING = 0.005;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final IntConsumer onChange;
+
+    private double limit;
+    private double shortLatency = Double.NaN;
+    private double longLatency = Double.NaN;
+
+    /**
+     * @param minLimit Lowest the limit can go
+     * @param maxLimit Highest the limit can go; also the starting limit
+     * @param tolerance Recent latency above tolerance x long-term latency counts as congestion (e.g. 2.0)
+     * @param onChange Receives the new limit whenever its integer value changes
+     */
+    public ConcurrencyLimiter(int minLimit, int maxLimit, double tolerance, IntConsumer onChange) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.onChange = onChange;
+        this.limit = maxLimit;
+    }
+
+    /**
+     * Record a finished call
+     * @param latencyNanos How long the call took
+     * @param failed Whether the call failed because of the backend (network error, timeout, 5xx)
+     * @param inFlight Calls still running, used to only grow the limit while it is actually reached
+     */
+    public void onSample(long latencyNanos, boolean failed, int inFlight) {
+        int changed;
+        synchronized (this) {
+            int before = (int) limit;
+            if (failed) {
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            } else {
+                if (Double.isNaN(longLatency)) {
+                    shortLatency = latencyNanos;
+                    longLatency = latencyNanos;
+                } else {
+                    shortLatency += (latencyNanos - shortLatency) * SHORT_SMOOTHING;
+                    longLatency += (latencyNanos - longLatency) * LONG_SMOOTHING;
+                }
+                if (shortLatency > longLatency * tolerance) {
+                    limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                } else if (inFlight + 1 >= before) {
+                    limit = Math.min(maxLimit, limit + 1.0 / limit);
+                }
+            }
+            changed = (int) limit != before ? (int) limit : -1;
+        }
+        if (changed >= 0) {
+            onChange.accept(changed);
+        }
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+}
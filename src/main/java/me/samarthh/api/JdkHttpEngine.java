@@ -0,0 +1,224 @@
+package me.samarthh.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link CallbackHttpEngine} on the JDK's built-in HttpServer. Requests run on one virtual thread each
+ * when the JVM supports it (Java 21+), otherwise on a small fixed pool. CORS headers are added to every
+ * response and OPTIONS preflight requests are answered for any path.
+ */
+public class JdkHttpEngine implements CallbackHttpEngine {
+    private static final Logger logger = LoggerFactory.getLogger(JdkHttpEngine.class);
+    private static final String UNMATCHED = "unmatched";
+
+    private final Map<String, Map<String, Handler>> routes = new HashMap<>();
+    private final int fallbackThreads;
+    private volatile RequestObserver observer = (route, method, status, durationNanos) -> { };
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public JdkHttpEngine() {
+        this(16);
+    }
+
+    /**
+     * @param fallbackThreads Pool size used when virtual threads are not available
+     */
+    public JdkHttpEngine(int fallbackThreads) {
+        this.fallbackThreads = fallbackThreads;
+    }
+
+    @Override
+    public void route(String method, String path, Handler handler) {
+        routes.computeIfAbsent(path, key -> new HashMap<>()).put(method.toUpperCase(), handler);
+    }
+
+    @Override
+    public void setRequestObserver(RequestObserver observer) {
+        this.observer = observer;
+    }
+
+    @Override
+    public void start(String bindAddress, int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(bindAddress, port), 0);
+        executor = createExecutor();
+        server.setExecutor(executor);
+        server.createContext("/", this::dispatch);
+        server.start();
+    }
+
+    @Override
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(2, TimeUnit.SECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+            executor = null;
+        }
+    }
+
+    @Override
+    public int getPort() {
+        return server == null ? -1 : server.getAddress().getPort();
+    }
+
+    private ExecutorService createExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threadIds = new AtomicInteger();
+            return Executors.newFixedThreadPool(fallbackThreads, r -> {
+                Thread thread = new Thread(r, "Siose-Callback-" + threadIds.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private void dispatch(HttpExchange httpExchange) {
+        long start = System.nanoTime();
+        String method = httpExchange.getRequestMethod().toUpperCase();
+        String path = httpExchange.getRequestURI().getPath();
+        Map<String, Handler> handlers = routes.get(path);
+        String route = handlers != null ? path : UNMATCHED;
+        JdkExchange exchange = new JdkExchange(httpExchange);
+        exchange.setHeader("Access-Control-Allow-Origin", "*");
+        exchange.setHeader("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
+        exchange.setHeader("Access-Control-Allow-Headers", "Content-Type, Authorization");
+
+        try (httpExchange) {
+            if (method.equals("OPTIONS")) {
+                exchange.send(200, "text/plain", "");
+            } else if (handlers == null) {
+                exchange.send(404, "application/json", "{\"error\":\"Not found\"}");
+            } else if (!handlers.containsKey(method)) {
+                exchange.send(405, "application/json", "{\"error\":\"Method not allowed\"}");
+            } else {
+                handlers.get(method).handle(exchange);
+                if (exchange.status == 0) {
+                    exchange.send(204, "text/plain", "");
+                }
+            }
+        } catch (IOException e) {
+            // Usually the client went away mid-response
+            logger.debug("Error handling {} {}: {}", method, path, e.getMessage());
+        } catch (RuntimeException e) {
+            logger.warn("Unhandled error in {} {}: {}", method, path, e.getMessage());
+            if (exchange.status == 0) {
+                try {
+                    exchange.send(500, "application/json", "{\"error\":\"Internal server error\"}");
+                } catch (IOException ignored) {
+                    // Nothing left to tell the client
+                }
+            }
+        } finally {
+            observer.completed(route, method, exchange.status == 0 ? 500 : exchange.status, System.nanoTime() - start);
+        }
+    }
+
+    private static final class JdkExchange implements Exchange {
+        private final HttpExchange exchange;
+        private Map<String, String> query;
+        private int status;
+
+        private JdkExchange(HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        @Override
+        public String method() {
+            return exchange.getRequestMethod().toUpperCase();
+        }
+
+        @Override
+        public String path() {
+            return exchange.getRequestURI().getPath();
+        }
+
+        @Override
+        public String query(String name) {
+            if (query == null) {
+                query = new HashMap<>();
+                String raw = exchange.getRequestURI().getRawQuery();
+                if (raw != null) {
+                    for (String pair : raw.split("&")) {
+                        int eq = pair.indexOf('=');
+                        String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+                        String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+                        query.putIfAbsent(key, value);
+                    }
+                }
+            }
+            return query.get(name);
+        }
+
+        @Override
+        public String header(String name) {
+            return exchange.getRequestHeaders().getFirst(name);
+        }
+
+        @Override
+        public InputStream body() {
+            return exchange.getRequestBody();
+        }
+
+        @Override
+        public String bodyAsString() throws IOException {
+            return new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            exchange.getResponseHeaders().set(name, value);
+        }
+
+        @Override
+        public void send(int status, String contentType, String body) throws IOException {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            this.status = status;
+            setHeader("Content-Type", contentType);
+            exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+            if (bytes.length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            }
+        }
+
+        @Override
+        public OutputStream stream(int status, String contentType) throws IOException {
+            this.status = status;
+            setHeader("Content-Type", contentType);
+            exchange.sendResponseHeaders(status, 0);
+            return exchange.getResponseBody();
+        }
+    }
+}
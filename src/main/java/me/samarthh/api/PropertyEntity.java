@@ -0,0 +1,39 @@
+package me.samarthh.api;
+
+/**
+ * Builds the entity payload sent with a property request
+ */
+public final class PropertyEntity {
+
+    private PropertyEntity() {
+    }
+
+    /**
+     * Area spanned by the three corner blocks: distance to the second corner times distance to the third
+     */
+    public static int area(int x1, int y1, int z1, int x2, int y2, int z2, int x3, int y3, int z3) {
+        double length = distance(x1, y1, z1, x2, y2, z2);
+        double breadth = distance(x1, y1, z1, x3, y3, z3);
+        return (int) Math.round(length * breadth);
+    }
+
+    private static double distance(int x1, int y1, int z1, int x2, int y2, int z2) {
+        double dx = x1 - x2;
+        double dy = y1 - y2;
+        double dz = z1 - z2;
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    /**
+     * Entity JSON in the format the backend expects:
+     * {"coordinates": [[x1,y1,z1], [x2,y2,z2], [x3,y3,z3]], "area": 123}
+     */
+    public static String toJson(int x1, int y1, int z1, int x2, int y2, int z2, int x3, int y3, int z3, int area) {
+        return new StringBuilder(96)
+                .append("{\"coordinates\": [[").append(x1).append(',').append(y1).append(',').append(z1)
+                .append("], [").append(x2).append(',').append(y2).append(',').append(z2)
+                .append("], [").append(x3).append(',').append(y3).append(',').append(z3)
+                .append("]], \"area\": ").append(area).append('}')
+                .toString();
+    }
+}
@@ -0,0 +1,242 @@
+package me.samarthh.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fan-out of property changes to live subscribers (the SSE feed).
+ * Publishing never blocks: every subscriber has a bounded ring buffer and a slow subscriber loses its
+ * oldest events rather than holding up the main thread. Recent events are kept in a shared history so a
+ * reconnecting subscriber can resume after the last event ID it saw. Sequence numbers restart with the
+ * server, so event IDs carry a per-start epoch; an ID from an earlier start cannot be resumed from.
+ */
+public class PropertyEventBus {
+
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final Event[] history;
+    private final Set<Subscription> subscribers = new CopyOnWriteArraySet<>();
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private long nextId = 1;
+    private int historyStart;
+    private int historySize;
+
+    /**
+     * @param bufferSize Events buffered per subscriber before the oldest are dropped
+     * @param historySize Events kept for resuming subscribers
+     * @param maxSubscribers Subscriptions allowed at once
+     */
+    public PropertyEventBus(int bufferSize, int historySize, int maxSubscribers) {
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.history = new Event[historySize];
+    }
+
+    /**
+     * Record an event and hand it to every subscriber
+     * @param status New status, or null for events without one
+     */
+    public void publish(String type, String propertyId, String status) {
+        // Offering never blocks, so the fan-out can run under the history lock; a concurrent subscribe
+        // then sees the event either in the history or from the fan-out, never both
+        synchronized (history) {
+            Event event = new Event(nextId++, type, propertyId, status, System.currentTimeMillis());
+            if (history.length > 0) {
+                history[(historyStart + historySize) % history.length] = event;
+                if (historySize < history.length) {
+                    historySize++;
+                } else {
+                    historyStart = (historyStart + 1) % history.length;
+                }
+            }
+            for (Subscription subscription : subscribers) {
+                subscription.offer(event);
+            }
+        }
+    }
+
+    /**
+     * Event ID to hand to clients, "epoch-sequence"
+     */
+    public String idOf(Event event) {
+        return epoch + "-" + event.id();
+    }
+
+    /**
+     * Resume after an event ID from {@link #idOf(Event)}. An ID of an earlier start (or one that cannot be
+     * parsed) replays the whole history and marks the subscription as {@link Subscription#takeRestarted() restarted},
+     * since whatever the client missed before the restart is gone.
+     * @param lastEventId The last event ID the client saw, or null for new events only
+     * @return The subscription, or null if the subscriber limit is reached
+     */
+    public Subscription subscribe(String lastEventId) {
+        if (lastEventId == null) {
+            return subscribe(-1);
+        }
+        int separator = lastEventId.lastIndexOf('-');
+        if (separator > 0 && lastEventId.substring(0, separator).equals(epoch)) {
+            try {
+                return subscribe(Long.parseLong(lastEventId.substring(separator + 1)));
+            } catch (NumberFormatException e) {
+                // Treated like an ID of an earlier start
+            }
+        }
+        Subscription subscription = subscribe(0);
+        if (subscription != null) {
+            subscription.restarted = true;
+        }
+        return subscription;
+    }
+
+    /**
+     * @param lastEventId Resume after this sequence number of the current start, or -1 for new events only
+     * @return The subscription, or null if the subscriber limit is reached
+     */
+    public Subscription subscribe(long lastEventId) {
+        Subscription subscription = new Subscription();
+        // Registering and replaying under the history lock means no event is missed or delivered twice
+        synchronized (history) {
+            if (subscribers.size() >= maxSubscribers) {
+                return null;
+            }
+            if (lastEventId >= 0) {
+                long oldest = historySize == 0 ? nextId : history[historyStart].id();
+                if (lastEventId + 1 < oldest) {
+                    // Events between lastEventId and the oldest retained one are gone
+                    subscription.dropped += oldest - lastEventId - 1;
+                }
+                for (int i = 0; i < historySize; i++) {
+                    Event event = history[(historyStart + i) % history.length];
+                    if (event.id() > lastEventId) {
+                        subscription.offer(event);
+                    }
+                }
+            }
+            subscribers.add(subscription);
+        }
+        return subscription;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * End every subscription (server shutdown)
+     */
+    public void closeAll() {
+        for (Subscription subscription : subscribers) {
+            subscription.close();
+        }
+    }
+
+    /**
+     * A property change
+     * @param id Sequence number, usable as SSE event ID
+     * @param type "registered" or "status"
+     */
+    public record Event(long id, String type, String propertyId, String status, long timestamp) {
+    }
+
+    /**
+     * One subscriber's bounded queue of events
+     */
+    public class Subscription implements AutoCloseable {
+        private final Event[] buffer = new Event[bufferSize];
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition available = lock.newCondition();
+        private int head;
+        private int size;
+        private long dropped;
+        private boolean restarted;
+        private boolean closed;
+
+        private void offer(Event event) {
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                if (size == buffer.length) {
+                    // Drop the oldest event to make room
+                    head = (head + 1) % buffer.length;
+                    size--;
+                    dropped++;
+                }
+                buffer[(head + size) % buffer.length] = event;
+                size++;
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Wait for events and take everything buffered
+         * @return The events, empty on timeout, or null once the subscription is closed
+         */
+        public List<Event> poll(long timeout, TimeUnit unit) throws InterruptedException {
+            lock.lock();
+            try {
+                long remaining = unit.toNanos(timeout);
+                while (size == 0 && !closed && remaining > 0) {
+                    remaining = available.awaitNanos(remaining);
+                }
+                if (closed) {
+                    return null;
+                }
+                List<Event> events = new ArrayList<>(size);
+                while (size > 0) {
+                    events.add(buffer[head]);
+                    buffer[head] = null;
+                    head = (head + 1) % buffer.length;
+                    size--;
+                }
+                return events;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Events lost since the last call because the subscriber fell behind or resumed too late
+         */
+        public long takeDropped() {
+            lock.lock();
+            try {
+                long count = dropped;
+                dropped = 0;
+                return count;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Whether the subscriber resumed from an event of an earlier server start, once
+         */
+        public boolean takeRestarted() {
+            boolean value = restarted;
+            restarted = false;
+            return value;
+        }
+
+        @Override
+        public void close() {
+            subscribers.remove(this);
+            lock.lock();
+            try {
+                closed = true;
+                available.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package me.samarthh.api;
+
+import me.samarthh.api.SioseApiClient.PropertyRequestResponse;
+import me.samarthh.storage.OutboxEntry;
+import me.samarthh.storage.OutboxStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Durable queue of property requests. Submissions return immediately; a background thread writes them
+ * to disk and then sends them to the backend in batches. Entries that fail with a retryable error
+ * are retried with exponential backoff, and when a whole batch fails the dispatcher pauses as well.
+ * Entries stay on disk until the backend accepts or rejects them, so nothing is lost across restarts.
+ */
+public class PropertyOutbox {
+    private static final Logger logger = LoggerFactory.getLogger(PropertyOutbox.class);
+    // How often a thread waiting for responses checks whether the outbox is stopping
+    private static final long STOP_CHECK_MILLIS = 100;
+
+    private final OutboxStore store;
+    private final SioseApiClient apiClient;
+    private final DeliveryListener listener;
+    private final int batchSize;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final Thread thread;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final List<OutboxEntry> pending = new ArrayList<>();
+    // Submitted entries the outbox thread has not written to disk yet
+    private final List<Submission> submitted = new ArrayList<>();
+    private volatile boolean running = true;
+    private int failedBatches;
+    private long pausedUntil;
+
+    /**
+     * @param store Where entries are persisted
+     * @param listener Notified on the outbox thread when the backend accepts or rejects an entry
+     * @param batchSize Maximum number of requests sent at once
+     * @param initialBackoffMillis Delay after the first failure; doubles with each further failure
+     * @param maxBackoffMillis Upper bound for the delay
+     */
+    public PropertyOutbox(OutboxStore store, SioseApiClient apiClient, DeliveryListener listener,
+                          int batchSize, long initialBackoffMillis, long maxBackoffMillis) {
+        this.store = store;
+        this.apiClient = apiClient;
+        this.listener = listener;
+        this.batchSize = batchSize;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.thread = new Thread(this::run, "Siose-Outbox");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Load entries left over from the last run and start sending
+     */
+    public void start() {
+        try {
+            List<OutboxEntry> stored = store.loadAll();
+            lock.lock();
+            try {
+                pending.addAll(stored);
+            } finally {
+                lock.unlock();
+            }
+            if (!stored.isEmpty()) {
+                logger.info("Resuming {} queued property requests", stored.size());
+            }
+        } catch (IOException e) {
+            logger.error("Failed to load property outbox: {}", e.getMessage());
+        }
+        thread.start();
+    }
+
+    /**
+     * Queue a property request. The entry is written to disk on the outbox thread, so this never
+     * blocks the caller on file I/O; it is only sent once it is on disk.
+     * @return Completes once the entry is stored, or exceptionally with the IOException if it could not be
+     * written, in which case nothing was queued
+     */
+    public CompletableFuture<Void> submit(OutboxEntry entry) {
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        lock.lock();
+        try {
+            submitted.add(new Submission(entry, written));
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+        return written;
+    }
+
+    /**
+     * Number of requests not yet accepted or rejected by the backend
+     */
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size() + submitted.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stop sending; undelivered entries stay on disk for the next start.
+     * The outbox thread is asked to stop rather than interrupted, so an entry it is writing is not cut off
+     * half way; requests still waiting for a response are sent again on the next start.
+     */
+    public void stop() {
+        lock.lock();
+        try {
+            running = false;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            logger.warn("Outbox thread did not stop within 5 seconds");
+        }
+        // Submissions that arrived after the last pass must still reach the disk
+        writeSubmitted();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                List<OutboxEntry> batch = awaitBatch();
+                writeSubmitted();
+                if (!batch.isEmpty() && running) {
+                    send(batch);
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Write submitted entries to disk and make them available for sending
+     */
+    private void writeSubmitted() {
+        List<Submission> toWrite;
+        lock.lock();
+        try {
+            if (submitted.isEmpty()) {
+                return;
+            }
+            toWrite = new ArrayList<>(submitted);
+            submitted.clear();
+        } finally {
+            lock.unlock();
+        }
+        for (Submission submission : toWrite) {
+            try {
+                store.write(submission.entry());
+            } catch (IOException e) {
+                logger.error("Failed to store outbox entry {}: {}", submission.entry().id(), e.getMessage());
+                submission.written().completeExceptionally(e);
+                continue;
+            }
+            lock.lock();
+            try {
+                pending.add(submission.entry());
+            } finally {
+                lock.unlock();
+            }
+            submission.written().complete(null);
+        }
+    }
+
+    /**
+     * Block until at least one entry is due and the dispatcher is not paused, or new submissions
+     * need writing or the outbox is stopping (then the returned batch is empty)
+     */
+    private List<OutboxEntry> awaitBatch() throws InterruptedException {
+        lock.lock();
+        try {
+            while (true) {
+                if (!submitted.isEmpty() || !running) {
+                    return List.of();
+                }
+                long now = System.currentTimeMillis();
+                long wakeAt = Long.MAX_VALUE;
+                List<OutboxEntry> batch = new ArrayList<>();
+                if (now >= pausedUntil) {
+                    for (OutboxEntry entry : pending) {
+                        if (entry.nextAttemptAt() <= now) {
+                            batch.add(entry);
+                            if (batch.size() == batchSize) {
+                                break;
+                            }
+                        } else {
+                            wakeAt = Math.min(wakeAt, entry.nextAttemptAt());
+                        }
+                    }
+                    if (!batch.isEmpty()) {
+                        return batch;
+                    }
+                } else {
+                    wakeAt = pausedUntil;
+                }
+                if (wakeAt == Long.MAX_VALUE) {
+                    changed.await();
+                } else {
+                    changed.await(wakeAt - now, TimeUnit.MILLISECONDS);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Send a batch and wait for every response, so no entry is in flight twice.
+     * Stops waiting when the outbox stops; unanswered entries stay on disk.
+     */
+    private void send(List<OutboxEntry> batch) {
+        List<CompletableFuture<Boolean>> results = new ArrayList<>(batch.size());
+        for (OutboxEntry entry : batch) {
+            results.add(apiClient.requestProperty(entry.token(), entry.entity(), entry.id())
+                    .thenApply(response -> complete(entry, response))
+                    .exceptionally(throwable -> {
+                        logger.error("Error completing property request {}: {}", entry.id(), throwable.getMessage());
+                        return false;
+                    }));
+        }
+
+        boolean anyDelivered = false;
+        for (CompletableFuture<Boolean> result : results) {
+            Boolean answered = await(result);
+            if (answered == null) {
+                return;
+            }
+            anyDelivered |= answered;
+        }
+
+        lock.lock();
+        try {
+            if (anyDelivered) {
+                failedBatches = 0;
+                pausedUntil = 0;
+            } else {
+                // The backend is down or overloaded; back off before trying the rest of the queue
+                pausedUntil = System.currentTimeMillis() + backoff(failedBatches++);
+                logger.warn("Property request batch failed, pausing outbox for {} ms ({} queued)",
+                        pausedUntil - System.currentTimeMillis(), pending.size());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The result, or null if the outbox stopped first
+     */
+    private Boolean await(CompletableFuture<Boolean> result) {
+        while (true) {
+            try {
+                return result.get(STOP_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (!running) {
+                    return null;
+                }
+            } catch (ExecutionException e) {
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Apply the backend's answer to one entry
+     * @return Whether the backend answered (accepted or rejected) rather than failing transiently
+     */
+    private boolean complete(OutboxEntry entry, PropertyRequestResponse response) {
+        if (response.isSuccess()) {
+            remove(entry);
+            listener.delivered(entry, response);
+            return true;
+        }
+        if (!response.isRetryable()) {
+            logger.warn("Property request {} rejected: {}", entry.id(), response.getMessage());
+            remove(entry);
+            listener.rejected(entry, response.getMessage());
+            return true;
+        }
+
+        OutboxEntry retry = entry.retryAt(System.currentTimeMillis() + backoff(entry.attempts()));
+        try {
+            store.write(retry);
+        } catch (IOException e) {
+            logger.error("Failed to update outbox entry {}: {}", entry.id(), e.getMessage());
+        }
+        lock.lock();
+        try {
+            int index = pending.indexOf(entry);
+            if (index >= 0) {
+                pending.set(index, retry);
+            }
+        } finally {
+            lock.unlock();
+        }
+        logger.debug("Property request {} failed (attempt {}): {}", entry.id(), retry.attempts(), response.getMessage());
+        return false;
+    }
+
+    private void remove(OutboxEntry entry) {
+        try {
+            store.delete(entry.id());
+        } catch (IOException e) {
+            logger.error("Failed to delete outbox entry {}: {}", entry.id(), e.getMessage());
+        }
+        lock.lock();
+        try {
+            pending.remove(entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Exponential backoff with +/-20% jitter so retries from many entries do not line up
+     */
+    private long backoff(int failures) {
+        long delay = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(failures, 20));
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return (long) (delay * jitter);
+    }
+
+    private record Submission(OutboxEntry entry, CompletableFuture<Void> written) {
+    }
+
+    /**
+     * Receives the final outcome of an entry; called on the outbox thread
+     */
+    public interface DeliveryListener {
+        void delivered(OutboxEntry entry, PropertyRequestResponse response);
+
+        void rejected(OutboxEntry entry, String message);
+    }
+}
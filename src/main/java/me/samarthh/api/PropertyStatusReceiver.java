@@ -0,0 +1,36 @@
+package me.samarthh.api;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * What the callback server needs from the plugin: known properties and a place to deliver status updates
+ */
+public interface PropertyStatusReceiver {
+
+    void receivePropertyStatusUpdate(String propertyId, String status);
+
+    /**
+     * Deliver many updates in one hand-off
+     * @param updates Status by property ID
+     */
+    void receivePropertyStatusUpdates(Map<String, String> updates);
+
+    boolean isRegisteredProperty(String propertyId);
+
+    Set<String> getRegisteredPropertyIds();
+
+    int getRegisteredPropertyCount();
+
+    /**
+     * Registered property IDs in ascending order, starting after cursor (null starts at the beginning).
+     * Iterating must not copy the whole set.
+     */
+    Iterator<String> registeredPropertyIdsAfter(String cursor);
+
+    /**
+     * Changes whenever the set of registered properties changes
+     */
+    long getPropertyListVersion();
+}
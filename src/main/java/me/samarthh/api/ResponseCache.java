@@ -0,0 +1,156 @@
+package me.samarthh.api;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU cache of API responses with single-flight loading.
+ * Concurrent lookups of the same key share one in-flight request. Entries are fresh for {@code ttlMillis};
+ * for another {@code staleMillis} they are still served while a single background refresh runs.
+ * Failed loads are never cached, and neither are loads that were in flight when their key was invalidated.
+ */
+public class ResponseCache<K, V> {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long staleNanos;
+    private final Map<K, Entry<V>> entries;
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * @param maxEntries Least recently used entries are evicted beyond this size
+     * @param ttlMillis How long a response is served without reloading (0 disables caching, deduplication still applies)
+     * @param staleMillis How long after expiry a response may still be served while it is refreshed (0 disables)
+     */
+    public ResponseCache(int maxEntries, long ttlMillis, long staleMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.staleNanos = staleMillis * 1_000_000L;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > ResponseCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Return the cached value for key, or load it once no matter how many callers ask at the same time
+     * @param loader Issues the request; only called when no fresh value and no request for the key exist
+     */
+    public CompletableFuture<V> get(K key, Function<K, CompletableFuture<V>> loader) {
+        Entry<V> entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry != null) {
+            long age = System.nanoTime() - entry.loadedAt;
+            if (age < ttlNanos) {
+                hits.increment();
+                return CompletableFuture.completedFuture(entry.value);
+            }
+            if (age < ttlNanos + staleNanos) {
+                staleHits.increment();
+                load(key, loader);
+                return CompletableFuture.completedFuture(entry.value);
+            }
+        }
+        misses.increment();
+        // Hand out a copy so one caller cancelling does not cancel the request for everyone else
+        return load(key, loader).copy();
+    }
+
+    private CompletableFuture<V> load(K key, Function<K, CompletableFuture<V>> loader) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+
+        CompletableFuture<V> request;
+        try {
+            request = loader.apply(key);
+        } catch (RuntimeException e) {
+            request = CompletableFuture.failedFuture(e);
+        }
+        request.whenComplete((value, throwable) -> {
+            synchronized (entries) {
+                // invalidate() detaches the in-flight load; its value predates the invalidation and is not stored
+                if (inFlight.remove(key, created) && throwable == null && ttlNanos > 0) {
+                    entries.put(key, new Entry<>(value, System.nanoTime()));
+                }
+            }
+            if (throwable != null) {
+                created.completeExceptionally(throwable);
+            } else {
+                created.complete(value);
+            }
+        });
+        return created;
+    }
+
+    /**
+     * Drop the cached value for key, e.g. after a request that changes it.
+     * A load already in flight still completes for its callers but is not cached, and later lookups start a new one.
+     */
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+            inFlight.remove(key);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            inFlight.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Lookups answered with a fresh cached value
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Lookups answered with an expired value while it was refreshed in the background
+     */
+    public long getStaleHits() {
+        return staleHits.sum();
+    }
+
+    /**
+     * Lookups that had to wait for a request
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Loads that joined a request already in flight instead of sending their own
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    private record Entry<V>(V value, long loadedAt) {
+    }
+}
@@ -2,21 +2,93 @@ package me.samarthh.api;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
+import me.samarthh.metrics.Counter;
+import me.samarthh.metrics.Histogram;
+import me.samarthh.metrics.Metrics;
 import okhttp3.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class SioseApiClient {
     private static final Logger logger = LoggerFactory.getLogger(SioseApiClient.class);
-    private final String baseUrl = "http://host.docker.internal:3000/v1";
+    private static final MediaType JSON = MediaType.get("application/json");
+    private static final String DEFAULT_BASE_URL = "http://host.docker.internal:3000/v1";
+    private final String baseUrl;
     private final OkHttpClient client;
     private final Gson gson;
+    private final ApiExecutor executor;
+    private final ResponseCache<String, String> userCache;
+    private final ResponseCache<String, EligibilityResponse> eligibilityCache;
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final ConcurrencyLimiter limiter;
+    private final int breakerFailureThreshold;
+    private final long breakerOpenMillis;
 
     public SioseApiClient() {
+        this(ApiExecutor.bounded(16, 256));
+    }
+
+    public SioseApiClient(ApiExecutor executor) {
+        this(DEFAULT_BASE_URL, executor);
+    }
+
+    /**
+     * @param baseUrl Versioned API root, e.g. http://localhost:3000/v1
+     * @param executor Executor the HTTP calls run on
+     */
+    public SioseApiClient(String baseUrl, ApiExecutor executor) {
+        this(baseUrl, executor, 1024, 30_000, 60_000);
+    }
+
+    /**
+     * @param baseUrl Versioned API root, e.g. http://localhost:3000/v1
+     * @param executor Executor the HTTP calls run on
+     * @param cacheSize Maximum number of tokens whose profile and eligibility responses are cached
+     * @param cacheTtlMillis How long cached responses are served without asking the backend
+     * @param cacheStaleMillis How long expired responses may still be served while they are refreshed
+     */
+    public SioseApiClient(String baseUrl, ApiExecutor executor, int cacheSize, long cacheTtlMillis, long cacheStaleMillis) {
+        this(baseUrl, executor, cacheSize, cacheTtlMillis, cacheStaleMillis, 5, 30_000);
+    }
+
+    /**
+     * @param baseUrl Versioned API root, e.g. http://localhost:3000/v1
+     * @param executor Executor the HTTP calls run on
+     * @param cacheSize Maximum number of tokens whose profile and eligibility responses are cached
+     * @param cacheTtlMillis How long cached responses are served without asking the backend
+     * @param cacheStaleMillis How long expired responses may still be served while they are refreshed
+     * @param breakerFailureThreshold Consecutive failures that open an endpoint's circuit breaker
+     * @param breakerOpenMillis How long an open breaker fails calls before probing the endpoint again
+     */
+    public SioseApiClient(String baseUrl, ApiExecutor executor, int cacheSize, long cacheTtlMillis, long cacheStaleMillis,
+                          int breakerFailureThreshold, long breakerOpenMillis) {
+        this.breakerFailureThreshold = breakerFailureThreshold;
+        this.breakerOpenMillis = breakerOpenMillis;
+        // Starts at the executor's limit and shrinks the dispatcher's limit when latency rises or calls fail
+        this.limiter = new ConcurrencyLimiter(1, executor.getMaxConcurrent(), 2.0, executor::setConcurrencyLimit);
+        this.userCache = new ResponseCache<>(cacheSize, cacheTtlMillis, cacheStaleMillis);
+        this.eligibilityCache = new ResponseCache<>(cacheSize, cacheTtlMillis, cacheStaleMillis);
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.executor = executor;
         this.client = new OkHttpClient.Builder()
+                .dispatcher(executor.dispatcher())
+                // Runs when the dispatcher starts the call, so latency samples exclude time spent queued
+                .addInterceptor(chain -> {
+                    CallTiming timing = chain.request().tag(CallTiming.class);
+                    if (timing != null) {
+                        timing.started = System.nanoTime();
+                        timing.leaveQueue(executor);
+                    }
+                    return chain.proceed(chain.request());
+                })
                 .connectTimeout(10, java.util.concurrent.TimeUnit.SECONDS)
                 .readTimeout(30, java.util.concurrent.TimeUnit.SECONDS)
                 .writeTimeout(30, java.util.concurrent.TimeUnit.SECONDS)
@@ -31,31 +103,24 @@ public class SioseApiClient {
      * @return CompletableFuture with registration response
      */
     public CompletableFuture<RegistrationResponse> registerUser(String uuid, String username) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                JsonObject json = new JsonObject();
-                json.addProperty("uuid", uuid);
-                json.addProperty("username", username);
-
-                RequestBody body = RequestBody.create(json.toString(), MediaType.get("application/json"));
-                Request request = new Request.Builder()
-                        .url(this.baseUrl + "/register")
-                        .post(body)
-                        .build();
-
-                try (Response response = client.newCall(request).execute()) {
-                    if (response.isSuccessful() && response.body() != null) {
-                        String responseBody = response.body().string();
-                        return gson.fromJson(responseBody, RegistrationResponse.class);
-                    } else {
-                        logger.warn("Registration failed with code: {}", response.code());
-                        throw new ApiException("Registration failed: " + response.code());
-                    }
-                }
-                } catch (IOException e) {
-                    logger.error("Network error during registration: {}", e.getMessage());
-                    throw new ApiException("Network error during registration: " + e.getMessage());
-                }
+        JsonObject json = new JsonObject();
+        json.addProperty("uuid", uuid);
+        json.addProperty("username", username);
+
+        RequestBody body = RequestBody.create(json.toString(), JSON);
+        Request request = new Request.Builder()
+                .url(this.baseUrl + "/register")
+                .post(body)
+                .build();
+
+        return call("registration", request, response -> {
+            if (response.isSuccessful() && response.body() != null) {
+                String responseBody = response.body().string();
+                return gson.fromJson(responseBody, RegistrationResponse.class);
+            } else {
+                logger.warn("Registration failed with code: {}", response.code());
+                throw new ApiException("Registration failed: " + response.code());
+            }
         });
     }
 
@@ -67,35 +132,28 @@ public class SioseApiClient {
      * @return CompletableFuture with auth response
      */
     public CompletableFuture<AuthResponse> login(String uuid, String username, String token) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                JsonObject minecraftPlayerData = new JsonObject();
-                minecraftPlayerData.addProperty("id", uuid);
-                minecraftPlayerData.addProperty("name", username);
-
-                JsonObject json = new JsonObject();
-                json.addProperty("token", token);
-                json.add("minecraftPlayerData", minecraftPlayerData);
-
-                RequestBody body = RequestBody.create(json.toString(), MediaType.get("application/json"));
-                Request request = new Request.Builder()
-                        .url(this.baseUrl + "/auth/minecraft/login")
-                        .post(body)
-                        .build();
-
-                try (Response response = client.newCall(request).execute()) {
-                    if (response.isSuccessful() && response.body() != null) {
-                        String responseBody = response.body().string();
-                        logger.info("Login response: {}", responseBody);
-                        return gson.fromJson(responseBody, AuthResponse.class);
-                    } else {
-                        logger.warn("Login failed with code: {}", response.code());
-                        throw new ApiException("Login failed: " + response.code());
-                    }
-                }
-            } catch (IOException e) {
-                logger.error("Network error during login: {}", e.getMessage());
-                throw new ApiException("Network error during login: " + e.getMessage());
+        JsonObject minecraftPlayerData = new JsonObject();
+        minecraftPlayerData.addProperty("id", uuid);
+        minecraftPlayerData.addProperty("name", username);
+
+        JsonObject json = new JsonObject();
+        json.addProperty("token", token);
+        json.add("minecraftPlayerData", minecraftPlayerData);
+
+        RequestBody body = RequestBody.create(json.toString(), JSON);
+        Request request = new Request.Builder()
+                .url(this.baseUrl + "/auth/minecraft/login")
+                .post(body)
+                .build();
+
+        return call("login", request, response -> {
+            if (response.isSuccessful() && response.body() != null) {
+                String responseBody = response.body().string();
+                logger.info("Login response: {}", responseBody);
+                return gson.fromJson(responseBody, AuthResponse.class);
+            } else {
+                logger.warn("Login failed with code: {}", response.code());
+                throw new ApiException("Login failed: " + response.code());
             }
         });
     }
@@ -106,28 +164,8 @@ public class SioseApiClient {
      * @return CompletableFuture with user data
      */
     public CompletableFuture<UserData> fetchData(String token) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                Request request = new Request.Builder()
-                        .url(this.baseUrl + "/user/@me")
-                        .addHeader("x-minecraft-token", token)
-                        .build();
-
-                try (Response response = client.newCall(request).execute()) {
-                    if (response.isSuccessful() && response.body() != null) {
-                        String responseBody = response.body().string();
-                        UserWrapper wrapper = gson.fromJson(responseBody, UserWrapper.class);
-                        return wrapper.getUser();
-                    } else {
-                        logger.warn("Data fetch failed with code: {}", response.code());
-                        throw new ApiException("Data fetch failed: " + response.code());
-                    }
-                }
-            } catch (IOException e) {
-                logger.error("Network error during data fetch: {}", e.getMessage());
-                throw new ApiException("Network error during data fetch: " + e.getMessage());
-            }
-        });
+        return fetchCurrentUser(token)
+                .thenApply(responseBody -> gson.fromJson(responseBody, UserWrapper.class).getUser());
     }
 
     /**
@@ -136,28 +174,220 @@ public class SioseApiClient {
      * @return CompletableFuture with profile response
      */
     public CompletableFuture<ProfileResponse> getUserProfile(String token) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                Request request = new Request.Builder()
-                        .url(this.baseUrl + "/user/@me")
-                        .addHeader("x-minecraft-token", token)
-                        .build();
-
-                try (Response response = client.newCall(request).execute()) {
-                    if (response.isSuccessful() && response.body() != null) {
-                        String responseBody = response.body().string();
-                        return gson.fromJson(responseBody, ProfileResponse.class);
-                    } else {
-                        logger.warn("Profile fetch failed with code: {}", response.code());
-                        throw new ApiException("Profile fetch failed: " + response.code());
-                    }
+        return fetchCurrentUser(token)
+                .thenApply(responseBody -> gson.fromJson(responseBody, ProfileResponse.class));
+    }
+
+    /**
+     * Raw /user/@me body, cached per token and shared by fetchData and getUserProfile
+     */
+    private CompletableFuture<String> fetchCurrentUser(String token) {
+        return userCache.get(token, key -> {
+            Request request = new Request.Builder()
+                    .url(this.baseUrl + "/user/@me")
+                    .addHeader("x-minecraft-token", key)
+                    .build();
+
+            return call("user fetch", request, response -> {
+                if (response.isSuccessful() && response.body() != null) {
+                    return response.body().string();
+                } else {
+                    logger.warn("User fetch failed with code: {}", response.code());
+                    throw new ApiException("User fetch failed: " + response.code());
+                }
+            });
+        });
+    }
+
+    /**
+     * Enqueue a call on the OkHttp dispatcher and bridge its callback to a CompletableFuture.
+     * No thread is held while the call waits for a dispatcher slot, and the number of slots follows the
+     * adaptive concurrency limit. Calls fail fast while the operation's circuit breaker is open.
+     * @param operation Human readable operation name for error messages; also names the circuit breaker
+     * @param request Request to send
+     * @param handler Converts the response; it is closed afterwards
+     */
+    private <T> CompletableFuture<T> call(String operation, Request request, ResponseHandler<T> handler) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Endpoint endpoint = endpoint(operation);
+        if (!executor.tryReserveQueueSlot()) {
+            logger.warn("Rejected {}: API executor saturated ({} calls queued)", operation, executor.getQueueDepth());
+            endpoint.saturated().inc();
+            future.completeExceptionally(new SaturatedException("Too many pending API calls, try again later"));
+            return future;
+        }
+        CircuitBreaker breaker = endpoint.breaker();
+        long permitted = System.nanoTime();
+        if (!breaker.tryAcquire()) {
+            executor.releaseQueueSlot();
+            endpoint.circuitOpen().inc();
+            future.completeExceptionally(new CircuitOpenException("BrickChain is unavailable (" + operation + "), try again later"));
+            return future;
+        }
+
+        CallTiming timing = new CallTiming();
+        Call call = client.newCall(request.newBuilder().tag(CallTiming.class, timing).build());
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                // Calls cancelled or failed while still queued never reach the interceptor
+                timing.leaveQueue(executor);
+                if (call.isCanceled()) {
+                    breaker.onIgnored(permitted);
+                } else {
+                    breaker.onFailure(permitted);
+                    limiter.onSample(timing.elapsed(), true, executor.getActiveCalls());
+                    endpoint.latency().observeNanos(timing.elapsed());
+                    endpoint.network().inc();
+                }
+                logger.error("Network error during {}: {}", operation, e.getMessage());
+                future.completeExceptionally(new ApiException("Network error during " + operation + ": " + e.getMessage()));
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                timing.leaveQueue(executor);
+                // Server errors and rate limiting mean the backend is struggling; other codes are the caller's problem
+                boolean failed = response.code() >= 500 || response.code() == 429;
+                if (failed) {
+                    breaker.onFailure(permitted);
+                } else {
+                    breaker.onSuccess(permitted);
+                }
+                limiter.onSample(timing.elapsed(), failed, executor.getActiveCalls());
+                endpoint.latency().observeNanos(timing.elapsed());
+                if (!response.isSuccessful()) {
+                    endpoint.httpError(operation, response.code()).inc();
                 }
-            } catch (IOException e) {
-                logger.error("Network error during profile fetch: {}", e.getMessage());
-                throw new ApiException("Network error during profile fetch: " + e.getMessage());
+
+                try (response) {
+                    future.complete(handler.handle(response));
+                } catch (IOException e) {
+                    logger.error("Network error during {}: {}", operation, e.getMessage());
+                    future.completeExceptionally(new ApiException("Network error during " + operation + ": " + e.getMessage()));
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+        // Cancelling the future aborts the HTTP call
+        future.whenComplete((result, throwable) -> {
+            if (future.isCancelled()) {
+                call.cancel();
             }
         });
+        return future;
+    }
+
+    private Endpoint endpoint(String operation) {
+        // Plain get first: computeIfAbsent would allocate the mapping function on every call
+        Endpoint endpoint = endpoints.get(operation);
+        return endpoint != null ? endpoint : endpoints.computeIfAbsent(operation, this::createEndpoint);
+    }
+
+    private Endpoint createEndpoint(String operation) {
+        CircuitBreaker breaker = new CircuitBreaker(operation, breakerFailureThreshold, breakerOpenMillis);
+        Metrics.gauge("siose_api_circuit_state", "Circuit breaker state per endpoint (0 closed, 1 half-open, 2 open)",
+                () -> breaker.getState() == CircuitBreaker.State.CLOSED ? 0 : breaker.getState() == CircuitBreaker.State.HALF_OPEN ? 1 : 2,
+                "endpoint", operation);
+        Counter[] httpErrors = new Counter[6];
+        for (int i = 4; i < httpErrors.length; i++) {
+            httpErrors[i] = errorCounter(operation, "http_" + i + "xx");
+        }
+        return new Endpoint(breaker, Metrics.histogram("siose_api_request_duration_seconds",
+                "BrickChain API call latency per endpoint, excluding time queued", "endpoint", operation),
+                errorCounter(operation, "saturated"), errorCounter(operation, "circuit_open"),
+                errorCounter(operation, "network"), httpErrors);
+    }
+
+    private static Counter errorCounter(String operation, String type) {
+        return Metrics.counter("siose_api_errors_total", "Failed BrickChain API calls per endpoint and failure type",
+                "endpoint", operation, "type", type);
+    }
+
+    /**
+     * Circuit breaker state of every endpoint called so far
+     */
+    public Map<String, CircuitBreaker.State> getCircuitStates() {
+        Map<String, CircuitBreaker.State> states = new TreeMap<>();
+        endpoints.forEach((operation, endpoint) -> states.put(operation, endpoint.breaker().getState()));
+        return states;
     }
+
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        return limiter;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Cache of /user/@me responses used by fetchData and getUserProfile
+     */
+    public ResponseCache<String, String> getUserCache() {
+        return userCache;
+    }
+
+    public ResponseCache<String, EligibilityResponse> getEligibilityCache() {
+        return eligibilityCache;
+    }
+
+    public ApiExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Stop the executor and release OkHttp's connection pool
+     */
+    public void shutdown() {
+        executor.shutdown();
+        client.connectionPool().evictAll();
+    }
+
+    @FunctionalInterface
+    private interface ResponseHandler<T> {
+        T handle(Response response) throws IOException;
+    }
+
+    /**
+     * Breaker and metric children of one endpoint, resolved once so calls don't build label strings
+     * @param httpErrors Error counters indexed by status class; only 4xx and 5xx are resolved up front
+     */
+    private record Endpoint(CircuitBreaker breaker, Histogram latency, Counter saturated, Counter circuitOpen,
+                            Counter network, Counter[] httpErrors) {
+
+        Counter httpError(String operation, int code) {
+            int statusClass = code / 100;
+            if (statusClass >= 0 && statusClass < httpErrors.length && httpErrors[statusClass] != null) {
+                return httpErrors[statusClass];
+            }
+            // 1xx/3xx only surface when redirects are disabled; rare enough to look up
+            return errorCounter(operation, "http_" + statusClass + "xx");
+        }
+    }
+
+    /**
+     * When a call started executing, recorded by the timing interceptor
+     */
+    private static final class CallTiming {
+        private final AtomicBoolean queued = new AtomicBoolean(true);
+        volatile long started;
+
+        /**
+         * The call started or ended; frees its queue slot exactly once
+         */
+        void leaveQueue(ApiExecutor executor) {
+            if (queued.compareAndSet(true, false)) {
+                executor.releaseQueueSlot();
+            }
+        }
+
+        long elapsed() {
+            return started == 0 ? 0 : System.nanoTime() - started;
+        }
+    }
+
     public static class UserWrapper {
         private UserData user;
 
@@ -263,27 +493,22 @@ public class SioseApiClient {
      * @return CompletableFuture with eligibility response
      */
     public CompletableFuture<EligibilityResponse> checkEligibility(String token) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                Request request = new Request.Builder()
-                        .url(this.baseUrl + "/user/property-requests/eligibility")
-                        .addHeader("x-minecraft-token", token)
-                        .get()
-                        .build();
-
-                try (Response response = client.newCall(request).execute()) {
-                    if (response.isSuccessful() && response.body() != null) {
-                        String responseBody = response.body().string();
-                        return gson.fromJson(responseBody, EligibilityResponse.class);
-                    } else {
-                        logger.warn("Eligibility check failed with code: {}", response.code());
-                        throw new ApiException("Eligibility check failed: " + response.code());
-                    }
+        return eligibilityCache.get(token, key -> {
+            Request request = new Request.Builder()
+                    .url(this.baseUrl + "/user/property-requests/eligibility")
+                    .addHeader("x-minecraft-token", key)
+                    .get()
+                    .build();
+
+            return call("eligibility check", request, response -> {
+                if (response.isSuccessful() && response.body() != null) {
+                    String responseBody = response.body().string();
+                    return gson.fromJson(responseBody, EligibilityResponse.class);
+                } else {
+                    logger.warn("Eligibility check failed with code: {}", response.code());
+                    throw new ApiException("Eligibility check failed: " + response.code());
                 }
-            } catch (IOException e) {
-                logger.error("Network error during eligibility check: {}", e.getMessage());
-                throw new ApiException("Network error during eligibility check: " + e.getMessage());
-            }
+            });
         });
     }
 
@@ -306,30 +531,23 @@ public class SioseApiClient {
      * @return CompletableFuture with property status response
      */
     public CompletableFuture<PropertyStatusResponse> getPropertyStatus(String token, String coordinates) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                JsonObject json = new JsonObject();
-                json.addProperty("coordinates", coordinates);
-
-                RequestBody body = RequestBody.create(json.toString(), MediaType.get("application/json"));
-                Request request = new Request.Builder()
-                        .url(this.baseUrl + "/user/property-requests/status")
-                        .addHeader("x-minecraft-token", token)
-                        .post(body)
-                        .build();
-
-                try (Response response = client.newCall(request).execute()) {
-                    if (response.isSuccessful() && response.body() != null) {
-                        String responseBody = response.body().string();
-                        return gson.fromJson(responseBody, PropertyStatusResponse.class);
-                    } else {
-                        logger.warn("Property status check failed with code: {}", response.code());
-                        throw new ApiException("Property status check failed: " + response.code());
-                    }
-                }
-            } catch (IOException e) {
-                logger.error("Network error during property status check: {}", e.getMessage());
-                throw new ApiException("Network error during property status check: " + e.getMessage());
+        JsonObject json = new JsonObject();
+        json.addProperty("coordinates", coordinates);
+
+        RequestBody body = RequestBody.create(json.toString(), JSON);
+        Request request = new Request.Builder()
+                .url(this.baseUrl + "/user/property-requests/status")
+                .addHeader("x-minecraft-token", token)
+                .post(body)
+                .build();
+
+        return call("property status check", request, response -> {
+            if (response.isSuccessful() && response.body() != null) {
+                String responseBody = response.body().string();
+                return gson.fromJson(responseBody, PropertyStatusResponse.class);
+            } else {
+                logger.warn("Property status check failed with code: {}", response.code());
+                throw new ApiException("Property status check failed: " + response.code());
             }
         });
     }
@@ -361,38 +579,55 @@ public class SioseApiClient {
      * @return CompletableFuture with property request response
      */
     public CompletableFuture<PropertyRequestResponse> requestProperty(String token, String entity) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                JsonObject json = new JsonObject();
-                json.addProperty("entity", entity);
-
-                RequestBody body = RequestBody.create(json.toString(), MediaType.get("application/json"));
-                Request request = new Request.Builder()
-                        .url(this.baseUrl + "/user/property-requests")
-                        .addHeader("x-minecraft-token", token)
-                        .post(body)
-                        .build();
-
-                try (Response response = client.newCall(request).execute()) {
-                    if (response.isSuccessful() && response.body() != null) {
-                        String responseBody = response.body().string();
-                        logger.info("Property request response: {}", responseBody);
-                        return gson.fromJson(responseBody, PropertyRequestResponse.class);
-                    } else {
-                        logger.warn("Property request failed with code: {}", response.code());
-                        PropertyRequestResponse errorResponse = new PropertyRequestResponse();
-                        errorResponse.setSuccess(false);
-                        errorResponse.setMessage("Request failed with code: " + response.code());
-                        return errorResponse;
-                    }
-                }
-            } catch (IOException e) {
-                logger.error("Network error during property request: {}", e.getMessage());
+        return requestProperty(token, entity, null);
+    }
+
+    /**
+     * Request property registration
+     * @param token User's authentication token
+     * @param entity Property entity data as JSON string
+     * @param idempotencyKey Sent as Idempotency-Key so a retried request is not registered twice (may be null)
+     * @return CompletableFuture with property request response; failures are reported in the response
+     */
+    public CompletableFuture<PropertyRequestResponse> requestProperty(String token, String entity, String idempotencyKey) {
+        JsonObject json = new JsonObject();
+        json.addProperty("entity", entity);
+
+        RequestBody body = RequestBody.create(json.toString(), JSON);
+        Request.Builder builder = new Request.Builder()
+                .url(this.baseUrl + "/user/property-requests")
+                .addHeader("x-minecraft-token", token)
+                .post(body);
+        if (idempotencyKey != null) {
+            builder.addHeader("Idempotency-Key", idempotencyKey);
+        }
+        Request request = builder.build();
+
+        return call("property request", request, response -> {
+            if (response.isSuccessful() && response.body() != null) {
+                String responseBody = response.body().string();
+                logger.info("Property request response: {}", responseBody);
+                // A new request may change whether the player can request another one
+                eligibilityCache.invalidate(token);
+                return gson.fromJson(responseBody, PropertyRequestResponse.class);
+            } else {
+                logger.warn("Property request failed with code: {}", response.code());
                 PropertyRequestResponse errorResponse = new PropertyRequestResponse();
                 errorResponse.setSuccess(false);
-                errorResponse.setMessage("Network error: " + e.getMessage());
+                errorResponse.setMessage("Request failed with code: " + response.code());
+                // Server errors, timeouts and rate limiting may succeed later; other client errors will not
+                int code = response.code();
+                errorResponse.setRetryable(code >= 500 || code == 408 || code == 429);
                 return errorResponse;
             }
+        }).exceptionally(throwable -> {
+            PropertyRequestResponse errorResponse = new PropertyRequestResponse();
+            errorResponse.setSuccess(false);
+            errorResponse.setMessage(throwable instanceof CompletionException && throwable.getCause() != null
+                    ? throwable.getCause().getMessage() : throwable.getMessage());
+            // Network errors and a saturated executor are transient
+            errorResponse.setRetryable(true);
+            return errorResponse;
         });
     }
 
@@ -400,6 +635,7 @@ public class SioseApiClient {
         private boolean success;
         private String message;
         private PropertyRequest request;
+        private transient boolean retryable;
 
         // Getters and setters
         public boolean isSuccess() { 
@@ -414,6 +650,10 @@ public class SioseApiClient {
         public PropertyRequest getRequest() { return request; }
         public void setRequest(PropertyRequest request) { this.request = request; }
 
+        // Whether a failed request may succeed if sent again (not part of the JSON)
+        public boolean isRetryable() { return retryable; }
+        public void setRetryable(boolean retryable) { this.retryable = retryable; }
+
         // Convenience method to get property ID
         public String getPropertyId() {
             return request != null ? request.getId() : null;
@@ -469,4 +709,22 @@ public class SioseApiClient {
             super(message);
         }
     }
+
+    /**
+     * Thrown when too many API calls are already waiting to run
+     */
+    public static class SaturatedException extends ApiException {
+        public SaturatedException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Thrown without contacting the backend while an endpoint's circuit breaker is open
+     */
+    public static class CircuitOpenException extends ApiException {
+        public CircuitOpenException(String message) {
+            super(message);
+        }
+    }
 }
\ No newline at end of file
@@ -7,6 +7,8 @@ import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
+import java.util.UUID;
+
 public class GetDataCommand implements CommandExecutor {
 
     private final UserManager userManager;
@@ -26,13 +28,19 @@ public class GetDataCommand implements CommandExecutor {
         }
 
         Player player = (Player) sender;
+        UUID uuid = player.getUniqueId();
 
-        if (!userManager.isAuthenticated(player.getUniqueId())) {
+        UserManager.Session session = userManager.getSessionOrLoad(uuid);
+        if (session == null) {
+            player.sendMessage("Your account is still loading. Try again in a moment.");
+            return true;
+        }
+        if (!session.isAuthenticated()) {
             player.sendMessage("You need to authenticate first! Use /register to start or /login <token> if you have one.");
             return true;
         }
 
-        String token = userManager.getToken(player.getUniqueId());
+        String token = session.getToken();
         player.sendMessage("Fetching data...");
 
         // Use the API client to fetch data
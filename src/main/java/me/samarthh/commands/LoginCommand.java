@@ -29,7 +29,12 @@ public class LoginCommand implements CommandExecutor {
         Player player = (Player) sender;
         UUID uuid = player.getUniqueId();
 
-        if (userManager.isAuthenticated(uuid)) {
+        UserManager.Session session = userManager.getSessionOrLoad(uuid);
+        if (session == null) {
+            player.sendMessage("Your account is still loading. Try again in a moment.");
+            return true;
+        }
+        if (session.isAuthenticated()) {
             player.sendMessage("You are already authenticated!");
             return true;
         }
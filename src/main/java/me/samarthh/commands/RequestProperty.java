@@ -34,12 +34,17 @@ public class RequestProperty implements CommandExecutor {
         Player player = (Player) sender;
         UUID uuid = player.getUniqueId();
 
-        if (!userManager.isAuthenticated(uuid)) {
+        UserManager.Session session = userManager.getSessionOrLoad(uuid);
+        if (session == null) {
+            player.sendMessage("Your account is still loading. Try again in a moment.");
+            return true;
+        }
+        if (!session.isAuthenticated()) {
             player.sendMessage("You must be authenticated to request a property. Use /login first.");
             return true;
         }
 
-        String token = userManager.getToken(uuid);
+        String token = session.getToken();
         if (token == null) {
             player.sendMessage("No token found. Please login again.");
             return true;
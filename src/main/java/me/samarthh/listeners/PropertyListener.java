@@ -1,11 +1,29 @@
 package me.samarthh.listeners;
 
+import me.samarthh.api.CallbackFileWatcher;
+import me.samarthh.api.PropertyEntity;
+import me.samarthh.api.PropertyEventBus;
+import me.samarthh.api.PropertyOutbox;
+import me.samarthh.api.PropertyStatusReceiver;
 import me.samarthh.api.SioseApiClient;
+import me.samarthh.api.SioseApiClient.PropertyRequestResponse;
+import me.samarthh.managers.PlacementSessionManager;
+import me.samarthh.managers.PlacementSessionManager.PlacementSession;
 import me.samarthh.managers.UserManager;
+import me.samarthh.metrics.Histogram;
+import me.samarthh.metrics.Metrics;
+import me.samarthh.protection.BlockKeys;
+import me.samarthh.protection.ProtectedBlockIndex;
+import me.samarthh.protection.PropertyRegionIndex;
+import me.samarthh.storage.BlockPosition;
+import me.samarthh.storage.MarkerStore;
+import me.samarthh.storage.OutboxEntry;
+import me.samarthh.storage.OutboxStore;
 import net.kyori.adventure.text.Component;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.Sign;
 import org.bukkit.block.sign.Side;
@@ -21,263 +39,347 @@ import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.NamespacedKey;
 
-import java.io.*;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.bukkit.plugin.Plugin;
 
-public class PropertyListener implements Listener {
+public class PropertyListener implements Listener, PropertyStatusReceiver {
+
+    private static final Histogram BLOCK_PLACE_TIME = Metrics.histogram("siose_event_handler_duration_seconds",
+            "Main thread time spent in event handlers", "handler", "onBlockPlace");
+    private static final Histogram BLOCK_BREAK_TIME = Metrics.histogram("siose_event_handler_duration_seconds",
+            "Main thread time spent in event handlers", "handler", "onBlockBreak");
 
     private final UserManager userManager;
     private final SioseApiClient apiClient;
-    private final Map<UUID, List<Location>> propertyLocations;
-    private final Set<Location> unbreakableBlocks;
+    private final PlacementSessionManager placementSessions;
+    private final ProtectedBlockIndex unbreakableBlocks;
+    private final PropertyRegionIndex propertyRegions;
     private final Plugin plugin;
-    private final Map<String, Location> propertyIdToSignLocation;
+    // Sorted so the property list can be paged with a cursor; size() is O(n), hence the separate count
+    private final ConcurrentSkipListMap<String, BlockPosition> propertyIdToSignLocation;
+    private final AtomicInteger propertyCount = new AtomicInteger();
+    private final AtomicLong propertyListVersion = new AtomicLong();
+    private final MarkerStore markerStore;
     private final NamespacedKey propertyIdKey;
     private final Path callbackDataPath;
+    private final CallbackFileWatcher callbackWatcher;
+    private final SignUpdateScheduler signUpdates;
+    private final PropertyOutbox outbox;
+    private final PropertyEventBus eventBus;
+    // Longest side of a property footprint, in blocks
+    private final int maxPropertySize;
 
-    public PropertyListener(UserManager userManager, Map<UUID, List<Location>> propertyLocations, Set<Location> unbreakableBlocks, Plugin plugin, SioseApiClient apiClient) {
-        this(userManager, propertyLocations, unbreakableBlocks, plugin, apiClient, new HashMap<>());
+    public PropertyListener(UserManager userManager, PlacementSessionManager placementSessions, ProtectedBlockIndex unbreakableBlocks, Plugin plugin, SioseApiClient apiClient) {
+        this(userManager, placementSessions, unbreakableBlocks, new PropertyRegionIndex(), plugin, apiClient, new HashMap<>(), null);
     }
 
-    public PropertyListener(UserManager userManager, Map<UUID, List<Location>> propertyLocations, Set<Location> unbreakableBlocks, Plugin plugin, SioseApiClient apiClient, Map<String, Location> propertyIdMapping) {
+    public PropertyListener(UserManager userManager, PlacementSessionManager placementSessions, ProtectedBlockIndex unbreakableBlocks, PropertyRegionIndex propertyRegions, Plugin plugin, SioseApiClient apiClient, Map<String, BlockPosition> propertyIdMapping, MarkerStore markerStore) {
         this.userManager = userManager;
         this.apiClient = apiClient;
-        this.propertyLocations = propertyLocations;
+        this.placementSessions = placementSessions;
         this.unbreakableBlocks = unbreakableBlocks;
+        this.propertyRegions = propertyRegions;
         this.plugin = plugin;
-        this.propertyIdToSignLocation = new ConcurrentHashMap<>(propertyIdMapping);
+        this.propertyIdToSignLocation = new ConcurrentSkipListMap<>(propertyIdMapping);
+        this.propertyCount.set(propertyIdToSignLocation.size());
+        this.markerStore = markerStore;
         this.propertyIdKey = new NamespacedKey(plugin, "property_id");
+        this.maxPropertySize = plugin.getConfig().getInt("placement.max-size", 256);
         this.callbackDataPath = Paths.get(plugin.getDataFolder().getPath(), "property_callbacks.json");
+        this.eventBus = new PropertyEventBus(
+                plugin.getConfig().getInt("callback.events.buffer-size", 256),
+                plugin.getConfig().getInt("callback.events.history-size", 1024),
+                plugin.getConfig().getInt("callback.events.max-subscribers", 8));
 
-        // Create data folder if it doesn't exist
-        try {
-            Files.createDirectories(callbackDataPath.getParent());
-        } catch (IOException e) {
-            plugin.getLogger().warning("Failed to create data directory: " + e.getMessage());
-        }
-
-        // Start callback checking task
-        startCallbackCheckTask();
-    }
-
-    private void startCallbackCheckTask() {
-        // Check for callback updates every 10 seconds (200 ticks)
-        Bukkit.getScheduler().runTaskTimer(plugin, this::checkCallbacks, 200L, 200L);
-    }
-
-    private void checkCallbacks() {
-        try {
-            if (!Files.exists(callbackDataPath)) {
-                return;
-            }
+        // Sign writes are coalesced and applied on the main thread within a per-tick budget
+        this.signUpdates = new SignUpdateScheduler(plugin, propertyIdToSignLocation::get, this::applyPropertyStatus,
+                plugin.getConfig().getLong("signs.tick-budget-micros", 2000));
+        this.signUpdates.start();
+        Bukkit.getPluginManager().registerEvents(signUpdates, plugin);
 
-            String content = Files.readString(callbackDataPath);
-            if (content.trim().isEmpty()) {
-                return;
-            }
+        // Tail the callback file off the main thread; the main thread only drains the queue
+        this.callbackWatcher = new CallbackFileWatcher(callbackDataPath, signUpdates::submit);
+        this.callbackWatcher.start();
 
-            // Parse JSON and update properties
-            // For simplicity, assume format: {"propertyId": "status"}
-            // In real implementation, you'd use a proper JSON parser
-            String[] updates = content.split("\n");
-            for (String update : updates) {
-                if (update.trim().isEmpty()) continue;
-                // Simple parsing: propertyId:status
-                String[] parts = update.split(":");
-                if (parts.length == 2) {
-                    String propertyId = parts[0].trim();
-                    String status = parts[1].trim();
-                    updatePropertyStatus(propertyId, status);
-                }
-            }
+        // Property requests survive backend outages and restarts in the outbox
+        this.outbox = new PropertyOutbox(new OutboxStore(plugin.getDataFolder().toPath().resolve("outbox")), apiClient,
+                new PropertyOutbox.DeliveryListener() {
+                    @Override
+                    public void delivered(OutboxEntry entry, PropertyRequestResponse response) {
+                        onRequestDelivered(entry, response);
+                    }
 
-            // Clear the callback file after processing
-            Files.writeString(callbackDataPath, "");
+                    @Override
+                    public void rejected(OutboxEntry entry, String message) {
+                        onRequestRejected(entry, message);
+                    }
+                },
+                plugin.getConfig().getInt("outbox.batch-size", 16),
+                plugin.getConfig().getLong("outbox.initial-backoff-millis", 1000),
+                plugin.getConfig().getLong("outbox.max-backoff-millis", 300_000));
+        this.outbox.start();
+    }
 
-        } catch (IOException e) {
-            plugin.getLogger().warning("Failed to check callbacks: " + e.getMessage());
-        }
+    /**
+     * Stop background ingestion (called when the plugin is disabled)
+     */
+    public void shutdown() {
+        callbackWatcher.stop();
+        outbox.stop();
     }
 
     /**
      * Public callback method that can be called by external services
      * This is the main callback URL endpoint functionality
      */
+    @Override
     public void receivePropertyStatusUpdate(String propertyId, String status) {
         updatePropertyStatus(propertyId, status);
         plugin.getLogger().info("Received callback update for property " + propertyId + ": " + status);
     }
 
+    /**
+     * Bulk variant of {@link #receivePropertyStatusUpdate}; all updates are queued in one hand-off
+     * @param updates Status by property ID
+     */
+    @Override
+    public void receivePropertyStatusUpdates(Map<String, String> updates) {
+        signUpdates.submitAll(updates);
+    }
+
+    /**
+     * Whether a property ID has a registered sign
+     */
+    @Override
+    public boolean isRegisteredProperty(String propertyId) {
+        return propertyIdToSignLocation.containsKey(propertyId);
+    }
+
+    /**
+     * Number of registered properties, without copying the ID set
+     */
+    @Override
+    public int getRegisteredPropertyCount() {
+        return propertyCount.get();
+    }
+
+    /**
+     * Registered property IDs in ascending order, starting after the cursor; a live view, nothing is copied
+     */
+    @Override
+    public Iterator<String> registeredPropertyIdsAfter(String cursor) {
+        return (cursor == null ? propertyIdToSignLocation : propertyIdToSignLocation.tailMap(cursor, false))
+                .keySet().iterator();
+    }
+
+    /**
+     * Incremented whenever a property is registered
+     */
+    @Override
+    public long getPropertyListVersion() {
+        return propertyListVersion.get();
+    }
+
     /**
      * Get all registered property IDs (for external services to know what properties exist)
      */
+    @Override
     public Set<String> getRegisteredPropertyIds() {
         return new HashSet<>(propertyIdToSignLocation.keySet());
     }
 
+    /**
+     * Get the sign position of every registered property (for persistence)
+     */
+    public Map<String, BlockPosition> getPropertyPositions() {
+        return new HashMap<>(propertyIdToSignLocation);
+    }
+
     /**
      * Get property location by ID (for debugging/external services)
      */
     public Location getPropertyLocation(String propertyId) {
-        return propertyIdToSignLocation.get(propertyId);
+        BlockPosition pos = propertyIdToSignLocation.get(propertyId);
+        return pos == null ? null : toLocation(pos);
     }
 
     /**
      * Update property status by ID (callback method)
      */
     public void updatePropertyStatus(String propertyId, String status) {
-        Location signLoc = propertyIdToSignLocation.get(propertyId);
-        if (signLoc == null) {
+        if (!propertyIdToSignLocation.containsKey(propertyId)) {
             plugin.getLogger().warning("Property ID not found: " + propertyId);
             return;
         }
 
-        // Update sign on main thread - move ALL block access inside the scheduled task
-        Bukkit.getScheduler().runTask(plugin, () -> {
-            try {
-                Block block = signLoc.getBlock();
-                if (!(block.getState() instanceof Sign sign)) {
-                    plugin.getLogger().warning("Sign not found at location for property: " + propertyId + " at " + signLoc);
-                    return;
-                }
+        // Sign is updated on the main thread by the scheduler, together with other queued updates
+        signUpdates.submit(propertyId, status);
+    }
 
-                SignSide front = sign.getSide(Side.FRONT);
-                front.line(0, Component.text("BrickChain"));
-                front.line(1, Component.text("Property"));
+    /**
+     * Get the scheduler that applies status updates to signs
+     */
+    public SignUpdateScheduler getSignUpdateScheduler() {
+        return signUpdates;
+    }
 
-                switch (status.toLowerCase()) {
-                    case "approved":
-                        front.line(2, Component.text("Approved"));
-                        break;
-                    case "rejected":
-                        front.line(2, Component.text("Rejected"));
-                        break;
-                    case "pending":
-                        front.line(2, Component.text("Pending"));
-                        break;
-                    default:
-                        front.line(2, Component.text(status));
-                        break;
-                }
+    /**
+     * Write a status to a property's sign; called by the scheduler on the main thread
+     */
+    private void applyPropertyStatus(String propertyId, World world, BlockPosition signPos, String status) {
+        try {
+            Block block = world.getBlockAt(signPos.x(), signPos.y(), signPos.z());
+            if (!(block.getState() instanceof Sign sign)) {
+                plugin.getLogger().warning("Sign not found at location for property: " + propertyId + " at " + signPos);
+                return;
+            }
 
-                sign.update();
-                plugin.getLogger().info("Updated property " + propertyId + " status to: " + status);
-            } catch (Exception e) {
-                plugin.getLogger().warning("Error processing callback request: " + e.getMessage());
+            SignSide front = sign.getSide(Side.FRONT);
+            front.line(0, Component.text("BrickChain"));
+            front.line(1, Component.text("Property"));
+
+            switch (status.toLowerCase()) {
+                case "approved":
+                    front.line(2, Component.text("Approved"));
+                    break;
+                case "rejected":
+                    front.line(2, Component.text("Rejected"));
+                    break;
+                case "pending":
+                    front.line(2, Component.text("Pending"));
+                    break;
+                default:
+                    front.line(2, Component.text(status));
+                    break;
             }
-        });
-    }    @EventHandler
+
+            sign.update();
+            eventBus.publish("status", propertyId, status);
+            plugin.getLogger().fine("Updated property " + propertyId + " status to: " + status);
+        } catch (Exception e) {
+            plugin.getLogger().warning("Error processing callback request: " + e.getMessage());
+        }
+    }
+
+    @EventHandler
     public void onBlockPlace(BlockPlaceEvent event) {
+        long start = System.nanoTime();
+        try {
+            handleBlockPlace(event);
+        } finally {
+            BLOCK_PLACE_TIME.observeSince(start);
+        }
+    }
+
+    private void handleBlockPlace(BlockPlaceEvent event) {
         Player player = event.getPlayer();
         ItemStack item = event.getItemInHand();
         if (item != null && item.hasItemMeta()) {
             ItemMeta meta = item.getItemMeta();
             if (meta != null && meta.displayName() != null && Component.text("BrickChain-Property-Onboarding").equals(meta.displayName())) {
                 UUID uuid = player.getUniqueId();
-                if (!userManager.isAuthenticated(uuid)) {
+                // Preloaded at login; never wait on the database on the main thread
+                UserManager.Session authSession = userManager.getSessionOrLoad(uuid);
+                if (authSession == null) {
+                    player.sendMessage("Your account is still loading. Try again in a moment.");
+                    event.setCancelled(true);
+                    return;
+                }
+                if (!authSession.isAuthenticated()) {
                     player.sendMessage("You must be authenticated to define property.");
                     event.setCancelled(true);
                     return;
                 }
 
-                Location loc = event.getBlock().getLocation();
-                List<Location> locations = propertyLocations.computeIfAbsent(uuid, k -> new ArrayList<>());
-                locations.add(loc);
-                unbreakableBlocks.add(loc); // Make it unbreakable
-                
-                if (locations.size() == 1) {
+                Block block = event.getBlock();
+                String world = block.getWorld().getName();
+                PlacementSession session = placementSessions.get(uuid);
+                PropertyRegionIndex.Region region = null;
+                if (session != null && session.corners() == 1 && session.world().equals(world)
+                        && !withinMaxSize(BlockKeys.unpackX(session.first()), BlockKeys.unpackZ(session.first()), block.getX(), block.getZ())) {
+                    player.sendMessage("A property can be at most " + maxPropertySize + " blocks long. Place the second fence block closer.");
+                    event.setCancelled(true);
+                    return;
+                }
+                if (session != null && session.corners() == 2 && session.world().equals(world)) {
+                    region = PropertyRegionIndex.Region.fromCorners(null, world,
+                            BlockKeys.unpackX(session.first()), BlockKeys.unpackZ(session.first()),
+                            BlockKeys.unpackX(session.second()), BlockKeys.unpackZ(session.second()),
+                            block.getX(), block.getZ());
+                    if (!withinMaxSize(region.minX(), region.minZ(), region.maxX(), region.maxZ())) {
+                        player.sendMessage("A property can be at most " + maxPropertySize + " blocks wide. Place the third fence block closer.");
+                        event.setCancelled(true);
+                        return;
+                    }
+                    // Refuse the third corner while the footprint would overlap another property or queued request
+                    PropertyRegionIndex.Region existing = propertyRegions.findOverlapping(region);
+                    if (existing != null) {
+                        player.sendMessage("This property would overlap property " + existing.id() + ". Place the third fence block elsewhere.");
+                        event.setCancelled(true);
+                        return;
+                    }
+                }
+                // Protects the corner (makes it unbreakable) until the session completes or expires
+                session = placementSessions.addCorner(uuid, world, block.getX(), block.getY(), block.getZ());
+
+                if (session.corners() == 1) {
                     player.sendMessage("First corner set. Place the second fence block for length.");
-                } else if (locations.size() == 2) {
+                } else if (session.corners() == 2) {
                     player.sendMessage("Second corner set. Place the third fence block for breadth.");
-                } else if (locations.size() == 3) {
+                } else if (session.corners() == 3) {
                     // Calculate area
-                    Location first = locations.get(0);
-                    Location second = locations.get(1);
-                    Location third = locations.get(2);
-                    
-                    double length = first.distance(second);
-                    double breadth = first.distance(third);
-                    int areaSqFt = (int) Math.round(length * breadth);
-                    
+                    long first = session.first();
+                    long second = session.second();
+                    long third = session.third();
+
+                    int areaSqFt = PropertyEntity.area(
+                            BlockKeys.unpackX(first), BlockKeys.unpackY(first), BlockKeys.unpackZ(first),
+                            BlockKeys.unpackX(second), BlockKeys.unpackY(second), BlockKeys.unpackZ(second),
+                            BlockKeys.unpackX(third), BlockKeys.unpackY(third), BlockKeys.unpackZ(third));
+
                     // Create entity JSON
-                    String entity = String.format("{\"coordinates\": [[%d,%d,%d], [%d,%d,%d], [%d,%d,%d]], \"area\": %d}",
-                            first.getBlockX(), first.getBlockY(), first.getBlockZ(),
-                            second.getBlockX(), second.getBlockY(), second.getBlockZ(),
-                            third.getBlockX(), third.getBlockY(), third.getBlockZ(),
+                    String entity = PropertyEntity.toJson(
+                            BlockKeys.unpackX(first), BlockKeys.unpackY(first), BlockKeys.unpackZ(first),
+                            BlockKeys.unpackX(second), BlockKeys.unpackY(second), BlockKeys.unpackZ(second),
+                            BlockKeys.unpackX(third), BlockKeys.unpackY(third), BlockKeys.unpackZ(third),
                             areaSqFt);
-                    
-                    String token = userManager.getToken(uuid);
-                    if (token != null) {
-                        // Call API asynchronously
-                        apiClient.requestProperty(token, entity)
-                                .thenAccept(response -> {
-                                    // Run UI updates on main thread
-                                    Bukkit.getScheduler().runTask(plugin, () -> {
-                                        if (response.isSuccess() || response.getMessage().toLowerCase().contains("successfully")) {
-                                            player.sendMessage("Property registration requested.");
-
-                                            // Debug logging
-                                            plugin.getLogger().info("API Response - Success: " + response.isSuccess() + ", Message: " + response.getMessage());
-                                            plugin.getLogger().info("API Response - Property ID: " + response.getPropertyId());
-                                            if (response.getRequest() != null) {
-                                                plugin.getLogger().info("API Response - Request ID: " + response.getRequest().getId());
-                                            }
-
-                                            // Use property ID from backend response
-                                            String propertyId = response.getPropertyId();
-                                            if (propertyId == null || propertyId.isEmpty()) {
-                                                // Fallback to generating UUID if backend doesn't return ID
-                                                propertyId = UUID.randomUUID().toString();
-                                                plugin.getLogger().warning("Backend did not return property ID, using generated UUID: " + propertyId);
-                                            } else {
-                                                plugin.getLogger().info("Using property ID from backend: " + propertyId);
-                                            }
-
-                                            // Place a sign above the first fence block
-                                            Location signLoc = first.clone().add(0, 1, 0);
-                                            Block signBlock = signLoc.getBlock();
-                                            signBlock.setType(Material.OAK_SIGN);
-                                            if (signBlock.getState() instanceof Sign sign) {
-                                                // Store property ID on the sign
-                                                PersistentDataContainer container = sign.getPersistentDataContainer();
-                                                container.set(propertyIdKey, PersistentDataType.STRING, propertyId);
-
-                                                // Register the property ID to sign location mapping
-                                                propertyIdToSignLocation.put(propertyId, signLoc);
-
-                                                SignSide front = sign.getSide(Side.FRONT);
-                                                front.line(0, Component.text("BrickChain"));
-                                                front.line(1, Component.text("Property"));
-                                                front.line(2, Component.text("Requested"));
-                                                front.line(3, Component.text("ID: " + propertyId.substring(0, 8)));
-                                                sign.update();
-                                                unbreakableBlocks.add(signLoc); // Make the sign unbreakable too
-
-                                                // Log the property ID for the external service
-                                                plugin.getLogger().info("Property registered with ID: " + propertyId + " at " + signLoc);
-                                            }
-                                        } else {
-                                            player.sendMessage("Failed to submit property request: " + response.getMessage());
-                                        }
-                                    });
-                                })
-                                .exceptionally(throwable -> {
-                                    // Run error message on main thread
-                                    Bukkit.getScheduler().runTask(plugin, () -> {
-                                        player.sendMessage("Error submitting property request: " + throwable.getMessage());
-                                    });
-                                    return null;
-                                });
+
+                    String token = authSession.getToken();
+                    if (token == null) {
+                        // Logged out while placing the corners; they are released like an abandoned placement
+                        plugin.getLogger().info("Discarding property placement of " + player.getName() + ": no login token");
+                        placementSessions.expire(uuid);
+                        player.sendMessage("You must be authenticated to request a property. Use /login first, then place the fence blocks again.");
+                        return;
                     }
-                    
-                    // Clear for next request
-                    propertyLocations.remove(uuid);
+                    // The outbox stores the request off the main thread, delivers it and places the sign once the backend confirms
+                    OutboxEntry entry = OutboxEntry.create(uuid, token, entity,
+                            new BlockPosition(world, BlockKeys.unpackX(first), BlockKeys.unpackY(first) + 1, BlockKeys.unpackZ(first)),
+                            List.of(toPosition(world, first), toPosition(world, second), toPosition(world, third)));
+                    // Claimed under the request ID until the backend assigns the property ID
+                    propertyRegions.put(region.withId(entry.id()));
+                    placementSessions.complete(uuid);
+                    outbox.submit(entry).whenComplete((stored, error) -> Bukkit.getScheduler().runTask(plugin, () -> {
+                        Player owner = Bukkit.getPlayer(uuid);
+                        if (error == null) {
+                            if (owner != null) {
+                                owner.sendMessage("Property request queued. A sign will appear once it is confirmed.");
+                            }
+                            return;
+                        }
+                        plugin.getLogger().warning("Failed to queue property request: " + error.getMessage());
+                        propertyRegions.remove(entry.id());
+                        unprotectCorners(entry);
+                        if (owner != null) {
+                            owner.sendMessage("Error submitting property request: " + error.getMessage());
+                        }
+                    }));
                 }
             }
         }
@@ -285,8 +387,140 @@ public class PropertyListener implements Listener {
 
     @EventHandler
     public void onBlockBreak(BlockBreakEvent event) {
-        if (unbreakableBlocks.contains(event.getBlock().getLocation())) {
+        long start = System.nanoTime();
+        Block block = event.getBlock();
+        if (unbreakableBlocks.contains(block.getWorld().getName(), block.getX(), block.getY(), block.getZ())) {
             event.setCancelled(true);
         }
+        BLOCK_BREAK_TIME.observeSince(start);
+    }
+
+    /**
+     * The backend accepted a queued request; place and register the sign on the main thread
+     */
+    private void onRequestDelivered(OutboxEntry entry, PropertyRequestResponse response) {
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            plugin.getLogger().info("API Response - Success: " + response.isSuccess() + ", Message: " + response.getMessage());
+
+            // Use property ID from backend response
+            String propertyId = response.getPropertyId();
+            if (propertyId == null || propertyId.isEmpty()) {
+                // Fallback to the outbox request ID if backend doesn't return ID
+                propertyId = entry.id();
+                plugin.getLogger().warning("Backend did not return property ID, using request ID: " + propertyId);
+            } else {
+                plugin.getLogger().info("Using property ID from backend: " + propertyId);
+            }
+
+            Player player = Bukkit.getPlayer(entry.player());
+            if (player != null) {
+                player.sendMessage("Property registration requested.");
+            }
+            propertyRegions.rename(entry.id(), propertyId);
+
+            World world = Bukkit.getWorld(entry.sign().world());
+            if (world == null) {
+                plugin.getLogger().warning("World " + entry.sign().world() + " is not loaded, registering property " + propertyId + " without a sign");
+                registerProperty(propertyId, entry.sign());
+                return;
+            }
+
+            // Place a sign above the first fence block
+            Location signLoc = toLocation(entry.sign());
+            Block signBlock = signLoc.getBlock();
+            signBlock.setType(Material.OAK_SIGN);
+            if (signBlock.getState() instanceof Sign sign) {
+                // Store property ID on the sign
+                PersistentDataContainer container = sign.getPersistentDataContainer();
+                container.set(propertyIdKey, PersistentDataType.STRING, propertyId);
+
+                // Register the property ID to sign location mapping
+                registerProperty(propertyId, entry.sign());
+
+                SignSide front = sign.getSide(Side.FRONT);
+                front.line(0, Component.text("BrickChain"));
+                front.line(1, Component.text("Property"));
+                front.line(2, Component.text("Requested"));
+                front.line(3, Component.text("ID: " + propertyId.substring(0, Math.min(8, propertyId.length()))));
+                sign.update();
+                protect(signLoc); // Make the sign unbreakable too
+
+                // Log the property ID for the external service
+                plugin.getLogger().info("Property registered with ID: " + propertyId + " at " + signLoc);
+            }
+        });
+    }
+
+    /**
+     * The backend refused a queued request; release its footprint and corners and tell the player if they are online
+     */
+    private void onRequestRejected(OutboxEntry entry, String message) {
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            propertyRegions.remove(entry.id());
+            unprotectCorners(entry);
+            Player player = Bukkit.getPlayer(entry.player());
+            if (player != null) {
+                player.sendMessage("Failed to submit property request: " + message);
+            }
+        });
+    }
+
+    /**
+     * Get the outbox holding property requests that have not been confirmed yet
+     */
+    public PropertyOutbox getOutbox() {
+        return outbox;
+    }
+
+    /**
+     * Get the bus carrying property registrations and status changes to live subscribers
+     */
+    public PropertyEventBus getEventBus() {
+        return eventBus;
+    }
+
+    private void registerProperty(String propertyId, BlockPosition signPos) {
+        if (propertyIdToSignLocation.put(propertyId, signPos) == null) {
+            propertyCount.incrementAndGet();
+        }
+        propertyListVersion.incrementAndGet();
+        eventBus.publish("registered", propertyId, null);
+        if (markerStore != null) {
+            markerStore.propertyPut(propertyId, signPos);
+        }
+    }
+
+    /**
+     * The registered property (or queued request) containing a block, without asking the backend
+     * @return The property or request ID, or null if the block is outside every known property
+     */
+    public String getPropertyAt(Location loc) {
+        PropertyRegionIndex.Region region = propertyRegions.regionAt(loc.getWorld().getName(), loc.getBlockX(), loc.getBlockZ());
+        return region == null ? null : region.id();
+    }
+
+    private boolean withinMaxSize(int x1, int z1, int x2, int z2) {
+        return Math.abs((long) x2 - x1) < maxPropertySize && Math.abs((long) z2 - z1) < maxPropertySize;
+    }
+
+    private static Location toLocation(BlockPosition pos) {
+        return new Location(Bukkit.getWorld(pos.world()), pos.x(), pos.y(), pos.z());
+    }
+
+    /**
+     * Release the corners of a request that will not become a property
+     */
+    private void unprotectCorners(OutboxEntry entry) {
+        for (BlockPosition corner : entry.corners()) {
+            unbreakableBlocks.remove(corner.world(), corner.x(), corner.y(), corner.z());
+        }
+    }
+
+    private static BlockPosition toPosition(String world, long key) {
+        return new BlockPosition(world, BlockKeys.unpackX(key), BlockKeys.unpackY(key), BlockKeys.unpackZ(key));
+    }
+
+    private void protect(Location loc) {
+        unbreakableBlocks.add(loc.getWorld().getName(), loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
     }
 }
\ No newline at end of file
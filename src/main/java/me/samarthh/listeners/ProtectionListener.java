@@ -0,0 +1,123 @@
+package me.samarthh.listeners;
+
+import me.samarthh.metrics.Histogram;
+import me.samarthh.metrics.Metrics;
+import me.samarthh.protection.BulkBlockCheck;
+import me.samarthh.protection.ProtectedBlockIndex;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+
+import java.util.List;
+
+/**
+ * Keeps property markers and signs intact against everything other than players breaking them:
+ * explosions, pistons, fire, fluids and mobs that change blocks. Explosions keep going but skip
+ * protected blocks; the other events are cancelled when they would touch one.
+ */
+public class ProtectionListener implements Listener {
+    private static final Histogram EXPLODE_TIME = Metrics.histogram("siose_event_handler_duration_seconds",
+            "Main thread time spent in event handlers", "handler", "onExplode");
+
+    private final ProtectedBlockIndex protectedBlocks;
+
+    public ProtectionListener(ProtectedBlockIndex protectedBlocks) {
+        this.protectedBlocks = protectedBlocks;
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        removeProtected(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        removeProtected(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        List<Block> moved = event.getBlocks();
+        BlockFace direction = event.getDirection();
+        if (moved.isEmpty()) {
+            // The piston head breaks whatever breakable block is in front of it
+            if (isProtected(event.getBlock().getRelative(direction))) {
+                event.setCancelled(true);
+            }
+            return;
+        }
+        BulkBlockCheck check = new BulkBlockCheck(protectedBlocks, event.getBlock().getWorld().getName());
+        for (Block block : moved) {
+            // Pushed blocks move, and blocks in their way are broken
+            int x = block.getX() + direction.getModX();
+            int y = block.getY() + direction.getModY();
+            int z = block.getZ() + direction.getModZ();
+            if (check.isProtected(block.getX(), block.getY(), block.getZ()) || check.isProtected(x, y, z)) {
+                event.setCancelled(true);
+                return;
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        List<Block> moved = event.getBlocks();
+        if (moved.isEmpty()) {
+            return;
+        }
+        BulkBlockCheck check = new BulkBlockCheck(protectedBlocks, event.getBlock().getWorld().getName());
+        for (Block block : moved) {
+            if (check.isProtected(block.getX(), block.getY(), block.getZ())) {
+                event.setCancelled(true);
+                return;
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onBlockBurn(BlockBurnEvent event) {
+        if (isProtected(event.getBlock())) {
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onBlockFromTo(BlockFromToEvent event) {
+        if (isProtected(event.getToBlock())) {
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onEntityChangeBlock(EntityChangeBlockEvent event) {
+        if (isProtected(event.getBlock())) {
+            event.setCancelled(true);
+        }
+    }
+
+    /**
+     * Drop protected blocks from an explosion's block list in one pass
+     */
+    private void removeProtected(List<Block> blocks) {
+        if (blocks.isEmpty() || protectedBlocks.size() == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        BulkBlockCheck check = new BulkBlockCheck(protectedBlocks, blocks.get(0).getWorld().getName());
+        blocks.removeIf(block -> check.isProtected(block.getX(), block.getY(), block.getZ()));
+        EXPLODE_TIME.observeSince(start);
+    }
+
+    private boolean isProtected(Block block) {
+        return protectedBlocks.contains(block.getWorld().getName(), block.getX(), block.getY(), block.getZ());
+    }
+}
@@ -0,0 +1,60 @@
+package me.samarthh.listeners;
+
+import me.samarthh.managers.PlacementSessionManager;
+import me.samarthh.managers.UserManager;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Keeps the UserManager session cache in sync with online players and ends the property
+ * placement session of players who leave
+ */
+public class SessionListener implements Listener {
+
+    private final UserManager userManager;
+    private final PlacementSessionManager placementSessions;
+
+    public SessionListener(UserManager userManager, PlacementSessionManager placementSessions) {
+        this.userManager = userManager;
+        this.placementSessions = placementSessions;
+    }
+
+    /**
+     * Warm the session cache off the main thread before the player joins
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            userManager.preloadSession(event.getUniqueId());
+        }
+    }
+
+    /**
+     * Drop sessions preloaded for players who are refused later (full server, whitelist)
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerLogin(PlayerLoginEvent event) {
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED) {
+            userManager.unloadSession(event.getPlayer().getUniqueId());
+        }
+    }
+
+    /**
+     * Fallback for players whose pre-login load failed, and for plugin reloads
+     */
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        userManager.loadSessionAsync(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        userManager.unloadSession(event.getPlayer().getUniqueId());
+        placementSessions.expire(event.getPlayer().getUniqueId());
+    }
+}
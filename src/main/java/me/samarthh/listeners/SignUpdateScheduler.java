@@ -0,0 +1,149 @@
+package me.samarthh.listeners;
+
+import me.samarthh.protection.BlockKeys;
+import me.samarthh.protection.LongObjectHashMap;
+import me.samarthh.storage.BlockPosition;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Coalesces property status updates and writes them to signs in per-tick batches.
+ * Updates can be submitted from any thread; only the newest status per property is kept. Each tick the
+ * queue is drained until the time budget is used up, and updates for signs in unloaded chunks are parked
+ * until their chunk loads.
+ */
+public class SignUpdateScheduler implements Listener, Runnable {
+
+    private final Plugin plugin;
+    private final Function<String, BlockPosition> positions;
+    private final SignWriter writer;
+    private final long budgetNanos;
+    private final Map<String, String> pending = new ConcurrentHashMap<>();
+    private final Queue<String> order = new ConcurrentLinkedQueue<>();
+    // Main thread only: world name -> chunk key -> (property ID -> status)
+    private final Map<String, LongObjectHashMap<Map<String, String>>> deferred = new HashMap<>();
+    private volatile int deferredCount;
+
+    /**
+     * @param positions Resolves a property ID to its sign position, or null if unknown
+     * @param writer Writes a status to a sign in a loaded chunk
+     * @param budgetMicros Maximum time spent writing signs per tick
+     */
+    public SignUpdateScheduler(Plugin plugin, Function<String, BlockPosition> positions, SignWriter writer, long budgetMicros) {
+        this.plugin = plugin;
+        this.positions = positions;
+        this.writer = writer;
+        this.budgetNanos = TimeUnit.MICROSECONDS.toNanos(budgetMicros);
+    }
+
+    public void start() {
+        Bukkit.getScheduler().runTaskTimer(plugin, this, 1L, 1L);
+    }
+
+    /**
+     * Queue a status update; replaces any update for the same property that has not been applied yet
+     */
+    public void submit(String propertyId, String status) {
+        if (pending.put(propertyId, status) == null) {
+            order.add(propertyId);
+        }
+    }
+
+    /**
+     * Queue several status updates at once
+     * @param updates Status by property ID
+     */
+    public void submitAll(Map<String, String> updates) {
+        updates.forEach(this::submit);
+    }
+
+    @Override
+    public void run() {
+        long deadline = System.nanoTime() + budgetNanos;
+        String propertyId;
+        while (System.nanoTime() < deadline && (propertyId = order.poll()) != null) {
+            String status = pending.remove(propertyId);
+            if (status == null) {
+                continue;
+            }
+
+            BlockPosition pos = positions.apply(propertyId);
+            if (pos == null) {
+                plugin.getLogger().warning("Property ID not found: " + propertyId);
+                continue;
+            }
+
+            World world = Bukkit.getWorld(pos.world());
+            if (world == null || !world.isChunkLoaded(pos.x() >> 4, pos.z() >> 4)) {
+                defer(pos, propertyId, status);
+                continue;
+            }
+            writer.write(propertyId, world, pos, status);
+        }
+    }
+
+    private void defer(BlockPosition pos, String propertyId, String status) {
+        Map<String, String> chunkUpdates = deferred.computeIfAbsent(pos.world(), w -> new LongObjectHashMap<>())
+                .computeIfAbsent(BlockKeys.chunkKeyOf(pos.x(), pos.z()), k -> new LinkedHashMap<>());
+        if (chunkUpdates.put(propertyId, status) == null) {
+            deferredCount++;
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        if (deferredCount == 0) {
+            return;
+        }
+        LongObjectHashMap<Map<String, String>> chunks = deferred.get(event.getWorld().getName());
+        if (chunks == null) {
+            return;
+        }
+        Chunk chunk = event.getChunk();
+        Map<String, String> chunkUpdates = chunks.remove(BlockKeys.chunkKey(chunk.getX(), chunk.getZ()));
+        if (chunkUpdates == null) {
+            return;
+        }
+        deferredCount -= chunkUpdates.size();
+        // A newer update submitted while the chunk was unloaded takes precedence
+        chunkUpdates.forEach((propertyId, status) -> {
+            if (pending.putIfAbsent(propertyId, status) == null) {
+                order.add(propertyId);
+            }
+        });
+    }
+
+    /**
+     * Number of updates waiting for a tick
+     */
+    public int getQueueDepth() {
+        return pending.size();
+    }
+
+    /**
+     * Number of updates waiting for their chunk to load
+     */
+    public int getDeferredCount() {
+        return deferredCount;
+    }
+
+    @FunctionalInterface
+    public interface SignWriter {
+        void write(String propertyId, World world, BlockPosition pos, String status);
+    }
+}
@@ -0,0 +1,140 @@
+package me.samarthh.managers;
+
+import me.samarthh.protection.BlockKeys;
+import me.samarthh.protection.ProtectedBlockIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fence corners placed by players who are defining a property.
+ * A session ends when the third corner completes the property, or expires when the player quits or stops
+ * placing corners for the idle timeout. Expired sessions release the protection of the corners placed so far,
+ * so abandoned fences do not stay unbreakable forever.
+ * Sessions can be read from any thread; changes must be made on the server main thread because they
+ * update the protected block index.
+ */
+public class PlacementSessionManager {
+    private static final Logger logger = LoggerFactory.getLogger(PlacementSessionManager.class);
+
+    private final ProtectedBlockIndex protectedBlocks;
+    private final long idleTimeoutMillis;
+    private final Map<UUID, PlacementSession> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * @param protectedBlocks Index the corners were protected in
+     * @param idleTimeoutMillis Sessions without a new corner for this long are expired by {@link #expireIdle(long)}
+     */
+    public PlacementSessionManager(ProtectedBlockIndex protectedBlocks, long idleTimeoutMillis) {
+        this.protectedBlocks = protectedBlocks;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    /**
+     * @return The player's session, or null if they have not placed a corner
+     */
+    public PlacementSession get(UUID player) {
+        return sessions.get(player);
+    }
+
+    /**
+     * Record a placed corner and protect it; a corner in another world than the earlier ones starts a new session
+     * @return The session including the new corner
+     */
+    public PlacementSession addCorner(UUID player, String world, int x, int y, int z) {
+        PlacementSession session = sessions.get(player);
+        if (session != null && !session.world().equals(world)) {
+            expire(player);
+            session = null;
+        }
+        long now = System.currentTimeMillis();
+        long corner = BlockKeys.pack(x, y, z);
+        PlacementSession updated = session == null
+                ? new PlacementSession(world, corner, 0, 0, 1, now)
+                : session.withCorner(corner, now);
+        sessions.put(player, updated);
+        protectedBlocks.add(world, x, y, z);
+        return updated;
+    }
+
+    /**
+     * End a session whose corners now belong to a property; they stay protected
+     */
+    public void complete(UUID player) {
+        sessions.remove(player);
+    }
+
+    /**
+     * End a session without a property and release the protection of its corners
+     * @return Whether the player had a session
+     */
+    public boolean expire(UUID player) {
+        PlacementSession session = sessions.remove(player);
+        if (session == null) {
+            return false;
+        }
+        release(session);
+        return true;
+    }
+
+    /**
+     * Expire every session idle for longer than the timeout
+     * @return Number of sessions expired
+     */
+    public int expireIdle(long now) {
+        int expired = 0;
+        Iterator<PlacementSession> iterator = sessions.values().iterator();
+        while (iterator.hasNext()) {
+            PlacementSession session = iterator.next();
+            if (now - session.lastActivity() > idleTimeoutMillis) {
+                iterator.remove();
+                release(session);
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            logger.info("Expired {} idle property placement sessions", expired);
+        }
+        return expired;
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    private void release(PlacementSession session) {
+        for (int i = 0; i < session.corners(); i++) {
+            long corner = session.corner(i);
+            protectedBlocks.remove(session.world(), BlockKeys.unpackX(corner), BlockKeys.unpackY(corner), BlockKeys.unpackZ(corner));
+        }
+    }
+
+    /**
+     * Corners placed so far, as packed block keys (see {@link BlockKeys#pack(int, int, int)})
+     * @param corners Number of corners set, 1 to 3
+     * @param lastActivity When the last corner was placed, in epoch milliseconds
+     */
+    public record PlacementSession(String world, long first, long second, long third, int corners, long lastActivity) {
+
+        public long corner(int index) {
+            return switch (index) {
+                case 0 -> first;
+                case 1 -> second;
+                case 2 -> third;
+                default -> throw new IndexOutOfBoundsException(index);
+            };
+        }
+
+        PlacementSession withCorner(long corner, long now) {
+            return switch (corners) {
+                case 1 -> new PlacementSession(world, first, corner, 0, 2, now);
+                case 2 -> new PlacementSession(world, first, second, corner, 3, now);
+                default -> throw new IllegalStateException("Placement session already has three corners");
+            };
+        }
+    }
+}
@@ -1,90 +1,210 @@
 package me.samarthh.managers;
 
-import java.sql.*;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import me.samarthh.metrics.Counter;
+import me.samarthh.metrics.Metrics;
+import me.samarthh.storage.UserDatabase;
+import me.samarthh.storage.UserDatabase.UserRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Player authentication state backed by SQLite.
+ * Sessions of online players are cached in memory and reads never wait for the database: a session that
+ * is not cached yet is loaded in the background and reads as logged out meanwhile. Only players who joined
+ * (see {@link #loadSessionAsync(UUID)}) and have not quit are loaded, so lookups for offline players, e.g. property
+ * owners in backend callbacks, never fill the cache with sessions nothing evicts.
+ * Writes update the cache immediately and are group-committed by the UserDatabase writer thread.
+ */
 public class UserManager {
     private static final Logger logger = LoggerFactory.getLogger(UserManager.class);
-    private Connection connection;
+    private static final String LOOKUPS = "siose_user_session_lookups_total";
+    private static final String LOOKUPS_HELP = "Session lookups by where they were answered from";
+    private static final Counter CACHED_LOOKUPS = Metrics.counter(LOOKUPS, LOOKUPS_HELP, "source", "cache");
+    private static final Counter PENDING_LOOKUPS = Metrics.counter(LOOKUPS, LOOKUPS_HELP, "source", "pending_write");
+    private static final Counter DATABASE_LOOKUPS = Metrics.counter(LOOKUPS, LOOKUPS_HELP, "source", "database");
+
+    private final UserDatabase database;
+    private final Map<UUID, Session> sessions = new ConcurrentHashMap<>();
+    private final Map<UUID, Session> pendingWrites = new ConcurrentHashMap<>();
+    // Database loads in flight; unloading a player removes the entry so a late load does not re-cache them
+    private final Map<UUID, CompletableFuture<Session>> loads = new ConcurrentHashMap<>();
+    // Players between loadSessionAsync and unloadSession; only their loaded sessions are cached
+    private final Set<UUID> online = ConcurrentHashMap.newKeySet();
 
     public UserManager() {
-        try {
-            connection = DriverManager.getConnection("jdbc:sqlite:users.db");
-            createTable();
-        } catch (SQLException e) {
-            logger.error("Failed to initialize database: {}", e.getMessage(), e);
-        }
+        this(new UserDatabase("users.db"));
     }
 
-    private void createTable() throws SQLException {
-        String sql = "CREATE TABLE IF NOT EXISTS users (" +
-                "uuid TEXT PRIMARY KEY," +
-                "token TEXT," +
-                "authenticated INTEGER DEFAULT 0" +
-                ")";
-        try (Statement stmt = connection.createStatement()) {
-            stmt.execute(sql);
-        }
+    public UserManager(UserDatabase database) {
+        this.database = database;
     }
 
+    /**
+     * Whether the player is logged in; false while their session is still loading
+     */
     public boolean isAuthenticated(UUID uuid) {
-        String sql = "SELECT authenticated FROM users WHERE uuid = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, uuid.toString());
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("authenticated") == 1;
-            }
-        } catch (SQLException e) {
-            logger.error("Error checking authentication for {}: {}", uuid, e.getMessage());
-        }
-        return false;
+        Session session = getSessionOrLoad(uuid);
+        return session != null && session.isAuthenticated();
     }
 
+    /**
+     * The player's token; null if they are logged out or their session is still loading
+     */
     public String getToken(UUID uuid) {
-        String sql = "SELECT token FROM users WHERE uuid = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, uuid.toString());
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return rs.getString("token");
-            }
-        } catch (SQLException e) {
-            logger.error("Error retrieving token for {}: {}", uuid, e.getMessage());
-        }
-        return null;
+        Session session = getSessionOrLoad(uuid);
+        return session == null ? null : session.getToken();
     }
 
     public void setToken(UUID uuid, String token) {
-        String sql = "INSERT OR REPLACE INTO users (uuid, token, authenticated) VALUES (?, ?, 1)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, uuid.toString());
-            pstmt.setString(2, token);
-            pstmt.executeUpdate();
-        } catch (SQLException e) {
-            logger.error("Error setting token for {}: {}", uuid, e.getMessage());
-        }
+        update(uuid, new Session(token, true));
     }
 
     public void logout(UUID uuid) {
-        String sql = "UPDATE users SET authenticated = 0, token = NULL WHERE uuid = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, uuid.toString());
-            pstmt.executeUpdate();
-        } catch (SQLException e) {
-            logger.error("Error logging out {}: {}", uuid, e.getMessage());
+        update(uuid, Session.LOGGED_OUT);
+    }
+
+    /**
+     * Load a player's session into the cache without blocking the caller (called when the player joins).
+     * A cached session is returned as is, and concurrent calls share one database read.
+     * The player counts as online until {@link #unloadSession(UUID)}.
+     */
+    public CompletableFuture<Session> loadSessionAsync(UUID uuid) {
+        online.add(uuid);
+        Session cached = sessions.get(uuid);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        Session pending = pendingWrites.get(uuid);
+        if (pending != null) {
+            sessions.putIfAbsent(uuid, pending);
+            return CompletableFuture.completedFuture(pending);
+        }
+
+        CompletableFuture<Session> load = new CompletableFuture<>();
+        CompletableFuture<Session> inFlight = loads.putIfAbsent(uuid, load);
+        if (inFlight != null) {
+            return inFlight;
+        }
+        DATABASE_LOOKUPS.inc();
+        database.load(uuid).whenComplete((record, throwable) -> {
+            if (throwable != null) {
+                logger.error("Error loading session for {}: {}", uuid, throwable.getMessage());
+                loads.remove(uuid, load);
+                load.complete(Session.LOGGED_OUT);
+                return;
+            }
+            Session session = toSession(record);
+            // Only cache if the player was not unloaded meanwhile; a login that raced with the load wins over the stored row
+            if (loads.remove(uuid, load)) {
+                Session current = sessions.putIfAbsent(uuid, session);
+                session = current != null ? current : session;
+                if (!online.contains(uuid)) {
+                    // Unloaded between the remove and the put
+                    sessions.remove(uuid, session);
+                }
+            }
+            load.complete(session);
+        });
+        return load;
+    }
+
+    /**
+     * Load a player's session into the cache and wait for it. Called on the async pre-login thread,
+     * so the session is cached before the player can place blocks or run commands.
+     */
+    public void preloadSession(UUID uuid) {
+        loadSessionAsync(uuid).join();
+    }
+
+    /**
+     * Cached session of a player, without ever touching the database
+     * @return The session, or null if it has not been loaded yet
+     */
+    public Session getCachedSession(UUID uuid) {
+        Session session = sessions.get(uuid);
+        if (session != null) {
+            CACHED_LOOKUPS.inc();
+            return session;
+        }
+        Session pending = pendingWrites.get(uuid);
+        if (pending != null) {
+            PENDING_LOOKUPS.inc();
+        }
+        return pending;
+    }
+
+    /**
+     * Evict a player's session from the cache (called when the player quits).
+     * Uncommitted writes stay queued and are still written to the database.
+     */
+    public void unloadSession(UUID uuid) {
+        online.remove(uuid);
+        loads.remove(uuid);
+        sessions.remove(uuid);
+    }
+
+    /**
+     * Cached session of a player; if it is not cached and the player is online, start loading it in the background
+     * @return The session, or null while it is loading or if the player is offline
+     */
+    public Session getSessionOrLoad(UUID uuid) {
+        Session session = getCachedSession(uuid);
+        if (session == null && online.contains(uuid)) {
+            loadSessionAsync(uuid);
         }
+        return session;
+    }
+
+    private void update(UUID uuid, Session session) {
+        sessions.put(uuid, session);
+        pendingWrites.put(uuid, session);
+        database.save(uuid, session.getToken(), session.isAuthenticated())
+                .whenComplete((ignored, throwable) -> {
+                    if (throwable != null) {
+                        logger.error("Error saving session for {}: {}", uuid, throwable.getMessage());
+                    }
+                    // Only drop the entry if it was not overwritten while the write was queued
+                    pendingWrites.remove(uuid, session);
+                });
+    }
+
+    private static Session toSession(UserRecord record) {
+        return record == null ? Session.LOGGED_OUT : new Session(record.token(), record.authenticated());
+    }
+
+    /**
+     * Number of writes queued or in flight to the database
+     */
+    public int getPendingWriteCount() {
+        return database.getPendingWrites();
     }
 
     public void close() {
-        try {
-            if (connection != null) {
-                connection.close();
-            }
-        } catch (SQLException e) {
-            logger.error("Error closing database connection: {}", e.getMessage());
+        database.close();
+    }
+
+    /**
+     * Cached authentication state of a single player
+     */
+    public static final class Session {
+        static final Session LOGGED_OUT = new Session(null, false);
+
+        private final String token;
+        private final boolean authenticated;
+
+        Session(String token, boolean authenticated) {
+            this.token = token;
+            this.authenticated = authenticated;
         }
+
+        public String getToken() { return token; }
+
+        public boolean isAuthenticated() { return authenticated; }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package me.samarthh.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency distribution over fixed buckets, recorded in nanoseconds and exported in seconds.
+ * Every bucket is its own LongAdder, so recording is lock-free and costs a binary search plus two adds.
+ */
+public final class Histogram {
+    /** Upper bounds in seconds, from 10 microseconds (event handlers) to 30 s (API timeouts) */
+    static final double[] BUCKETS = {
+            0.00001, 0.000025, 0.00005, 0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005,
+            0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30
+    };
+    private static final long[] BOUNDS_NANOS = Arrays.stream(BUCKETS).mapToLong(s -> Math.round(s * 1e9)).toArray();
+
+    // One slot per bound plus the +Inf bucket
+    private final LongAdder[] counts = new LongAdder[BOUNDS_NANOS.length + 1];
+    private final LongAdder sumNanos = new LongAdder();
+
+    Histogram() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    public void observeNanos(long nanos) {
+        int index = Arrays.binarySearch(BOUNDS_NANOS, nanos);
+        counts[index >= 0 ? index : -index - 1].increment();
+        sumNanos.add(nanos);
+    }
+
+    /**
+     * Record the time elapsed since startNanos (a System.nanoTime() value)
+     */
+    public void observeSince(long startNanos) {
+        observeNanos(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Non-cumulative count per bucket; the last element is the +Inf bucket
+     */
+    long[] snapshotCounts() {
+        long[] snapshot = new long[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            snapshot[i] = counts[i].sum();
+        }
+        return snapshot;
+    }
+
+    double getSumSeconds() {
+        return sumNanos.sum() / 1e9;
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (LongAdder adder : counts) {
+            count += adder.sum();
+        }
+        return count;
+    }
+}
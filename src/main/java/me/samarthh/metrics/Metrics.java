@@ -0,0 +1,144 @@
+package me.samarthh.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Process-wide metrics registry exported in Prometheus text format.
+ * Counters and histograms are created once per name and label set and should be kept in a field on hot paths;
+ * gauges are read only when the registry is scraped. Registering a gauge again replaces the previous supplier,
+ * so objects recreated on plugin reload simply re-register theirs.
+ */
+public final class Metrics {
+    private static final Map<String, Family> families = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    /**
+     * @param labels Alternating label names and values, e.g. "endpoint", "login"
+     */
+    public static Counter counter(String name, String help, String... labels) {
+        return (Counter) family(name, help, Type.COUNTER).children.computeIfAbsent(labelString(labels), key -> new Counter());
+    }
+
+    public static Histogram histogram(String name, String help, String... labels) {
+        return (Histogram) family(name, help, Type.HISTOGRAM).children.computeIfAbsent(labelString(labels), key -> new Histogram());
+    }
+
+    /**
+     * Value sampled at scrape time
+     */
+    public static void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, Type.GAUGE).children.put(labelString(labels), value);
+    }
+
+    /**
+     * Monotonic count maintained elsewhere (e.g. cache hit counters), sampled at scrape time
+     */
+    public static void counterFunction(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, Type.COUNTER).children.put(labelString(labels), value);
+    }
+
+    /**
+     * Drop every metric (used by tests)
+     */
+    public static void clear() {
+        families.clear();
+    }
+
+    /**
+     * Render every metric in the Prometheus text exposition format (version 0.0.4)
+     */
+    public static String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Family family : new TreeMap<>(families).values()) {
+            out.append("# HELP ").append(family.name).append(' ').append(family.help.replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+            out.append("# TYPE ").append(family.name).append(' ').append(family.type.name().toLowerCase()).append('\n');
+            for (Map.Entry<String, Object> child : new TreeMap<>(family.children).entrySet()) {
+                String labels = child.getKey();
+                Object metric = child.getValue();
+                if (metric instanceof Histogram histogram) {
+                    writeHistogram(out, family.name, labels, histogram);
+                } else if (metric instanceof Counter counter) {
+                    writeSample(out, family.name, labels, counter.get());
+                } else {
+                    writeSample(out, family.name, labels, ((DoubleSupplier) metric).getAsDouble());
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    private static void writeHistogram(StringBuilder out, String name, String labels, Histogram histogram) {
+        long[] counts = histogram.snapshotCounts();
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        long cumulative = 0;
+        for (int i = 0; i < Histogram.BUCKETS.length; i++) {
+            cumulative += counts[i];
+            writeSample(out, name + "_bucket", prefix + "le=\"" + Histogram.BUCKETS[i] + "\"", cumulative);
+        }
+        // Count derives from the same snapshot so the +Inf bucket and _count always agree
+        cumulative += counts[counts.length - 1];
+        writeSample(out, name + "_bucket", prefix + "le=\"+Inf\"", cumulative);
+        writeSample(out, name + "_sum", labels, histogram.getSumSeconds());
+        writeSample(out, name + "_count", labels, cumulative);
+    }
+
+    private static void writeSample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            out.append((long) value);
+        } else if (Double.isNaN(value)) {
+            out.append("NaN");
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    private static Family family(String name, String help, Type type) {
+        Family family = families.computeIfAbsent(name, key -> new Family(name, help, type));
+        if (family.type != type) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as a " + family.type);
+        }
+        return family;
+    }
+
+    private static String labelString(String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name/value pairs");
+        }
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(labels[i]).append("=\"")
+                    .append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+                    .append('"');
+        }
+        return builder.toString();
+    }
+
+    private enum Type { COUNTER, GAUGE, HISTOGRAM }
+
+    private static final class Family {
+        private final String name;
+        private final String help;
+        private final Type type;
+        private final Map<String, Object> children = new ConcurrentHashMap<>();
+
+        private Family(String name, String help, Type type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package me.samarthh.protection;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Blocked Bloom filter over packed block keys. All bits of a key fall into one 64-bit word, so a lookup
+ * is a single array read. Adds set bits with compare-and-set, so keys can be added from several threads
+ * while the filter is being read. Keys cannot be removed; removed blocks leave their bits set and raise the
+ * false-positive rate until the filter is rebuilt.
+ */
+public class BlockBloomFilter {
+    private static final int BITS_PER_KEY = 16;
+
+    private final AtomicLongArray words;
+    private final int mask;
+    private final int capacity;
+
+    /**
+     * @param expectedKeys Keys the filter is sized for; beyond this the false-positive rate climbs quickly
+     */
+    public BlockBloomFilter(int expectedKeys) {
+        int minWords = (int) Math.max(1, Math.min(1 << 28, (long) expectedKeys * BITS_PER_KEY / 64));
+        int wordCount = Integer.highestOneBit(minWords * 2 - 1); // next power of two
+        this.words = new AtomicLongArray(wordCount);
+        this.mask = wordCount - 1;
+        this.capacity = (int) Math.min(Integer.MAX_VALUE, (long) wordCount * 64 / BITS_PER_KEY);
+    }
+
+    /**
+     * @return False if the key was never added; true if it probably was
+     */
+    public boolean mightContain(long key) {
+        long hash = hash(key);
+        long pattern = pattern(hash);
+        return (words.get((int) (hash >>> 32) & mask) & pattern) == pattern;
+    }
+
+    public void add(long key) {
+        long hash = hash(key);
+        long pattern = pattern(hash);
+        int index = (int) (hash >>> 32) & mask;
+        long current;
+        while (((current = words.get(index)) & pattern) != pattern) {
+            if (words.compareAndSet(index, current, current | pattern)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Number of keys the filter was sized for
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Four bit positions within a word, taken from the low bits of the hash
+     */
+    private static long pattern(long hash) {
+        return 1L << (hash & 63) | 1L << ((hash >>> 6) & 63) | 1L << ((hash >>> 12) & 63) | 1L << ((hash >>> 18) & 63);
+    }
+
+    /**
+     * Murmur3 finalizer; every input bit affects the word index and the bit positions
+     */
+    private static long hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xFF51AFD7ED558CCDL;
+        key ^= key >>> 33;
+        key *= 0xC4CEB9FE1A85EC53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
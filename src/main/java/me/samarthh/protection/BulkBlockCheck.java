@@ -0,0 +1,35 @@
+package me.samarthh.protection;
+
+/**
+ * Protected-block checks for many nearby blocks at once, such as the block list of an explosion.
+ * The chunks looked up last are cached in four slots chosen by the parity of the chunk coordinates,
+ * so the 2x2 chunks an explosion usually spans cost one index lookup each, however many blocks are checked
+ * and in whatever order. Create one per event; not thread-safe.
+ */
+public final class BulkBlockCheck {
+
+    private final ProtectedBlockIndex index;
+    private final String world;
+    private final long[] chunkKeys = new long[4];
+    private final LongHashSet[] chunks = new LongHashSet[4];
+    private final boolean[] cached = new boolean[4];
+
+    public BulkBlockCheck(ProtectedBlockIndex index, String world) {
+        this.index = index;
+        this.world = world;
+    }
+
+    public boolean isProtected(int x, int y, int z) {
+        int chunkX = x >> 4;
+        int chunkZ = z >> 4;
+        long chunkKey = BlockKeys.chunkKey(chunkX, chunkZ);
+        int slot = (chunkX & 1) | (chunkZ & 1) << 1;
+        if (!cached[slot] || chunkKeys[slot] != chunkKey) {
+            chunkKeys[slot] = chunkKey;
+            chunks[slot] = index.getChunk(world, chunkX, chunkZ);
+            cached[slot] = true;
+        }
+        LongHashSet blocks = chunks[slot];
+        return blocks != null && blocks.contains(BlockKeys.pack(x, y, z));
+    }
+}
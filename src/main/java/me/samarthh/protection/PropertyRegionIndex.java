@@ -0,0 +1,241 @@
+package me.samarthh.protection;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of property footprints for "which property is this block in" and overlap queries.
+ * A footprint is the bounding box of the property's corners in x and z; it covers every height.
+ * Each region is listed in every chunk it touches, so a point query is one primitive map probe plus
+ * a scan of the few regions in that chunk, and an overlap query only visits the chunks of the queried box.
+ * Regions covering more than {@link #MAX_BUCKETED_CHUNKS} chunks are kept in a per-world list that every
+ * query scans instead, and overlap queries larger than the number of regions scan the regions, so no
+ * operation costs more than the number of regions however large the boxes are.
+ * Only accessed from the server main thread.
+ */
+public class PropertyRegionIndex {
+    static final long MAX_BUCKETED_CHUNKS = 1024;
+
+    private final Map<String, WorldRegions> worlds = new HashMap<>();
+    private final Map<String, Region> regions = new HashMap<>();
+    private ChangeListener changeListener;
+
+    /**
+     * Listener notified of every put and remove, e.g. to journal them
+     */
+    public void setChangeListener(ChangeListener changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    /**
+     * Add a region, replacing any region with the same ID
+     */
+    public void put(Region region) {
+        Region previous = regions.put(region.id(), region);
+        if (previous != null) {
+            unlink(previous);
+        }
+        WorldRegions world = worlds.computeIfAbsent(region.world(), w -> new WorldRegions());
+        if (isLarge(region)) {
+            world.large.add(region);
+        } else {
+            bucket(world.chunks, region);
+        }
+        if (changeListener != null) {
+            changeListener.regionPut(region);
+        }
+    }
+
+    private static void bucket(LongObjectHashMap<List<Region>> chunks, Region region) {
+        for (int chunkX = region.minX() >> 4; chunkX <= region.maxX() >> 4; chunkX++) {
+            for (int chunkZ = region.minZ() >> 4; chunkZ <= region.maxZ() >> 4; chunkZ++) {
+                chunks.computeIfAbsent(BlockKeys.chunkKey(chunkX, chunkZ), k -> new ArrayList<>(2)).add(region);
+            }
+        }
+    }
+
+    /**
+     * @return The removed region, or null if there was none with this ID
+     */
+    public Region remove(String id) {
+        Region region = regions.remove(id);
+        if (region == null) {
+            return null;
+        }
+        unlink(region);
+        if (changeListener != null) {
+            changeListener.regionRemoved(id);
+        }
+        return region;
+    }
+
+    private void unlink(Region region) {
+        WorldRegions world = worlds.get(region.world());
+        if (isLarge(region)) {
+            world.large.remove(region);
+            return;
+        }
+        LongObjectHashMap<List<Region>> chunks = world.chunks;
+        for (int chunkX = region.minX() >> 4; chunkX <= region.maxX() >> 4; chunkX++) {
+            for (int chunkZ = region.minZ() >> 4; chunkZ <= region.maxZ() >> 4; chunkZ++) {
+                long chunkKey = BlockKeys.chunkKey(chunkX, chunkZ);
+                List<Region> bucket = chunks.get(chunkKey);
+                if (bucket != null && bucket.remove(region) && bucket.isEmpty()) {
+                    chunks.remove(chunkKey);
+                }
+            }
+        }
+    }
+
+    /**
+     * Give a region a new ID, e.g. once the backend has assigned the property ID
+     * @return Whether a region with the old ID existed
+     */
+    public boolean rename(String id, String newId) {
+        Region region = remove(id);
+        if (region == null) {
+            return false;
+        }
+        put(region.withId(newId));
+        return true;
+    }
+
+    public Region get(String id) {
+        return regions.get(id);
+    }
+
+    /**
+     * The region containing a block, or null if it is not inside any property
+     */
+    public Region regionAt(String world, int x, int z) {
+        WorldRegions regionsInWorld = worlds.get(world);
+        if (regionsInWorld == null) {
+            return null;
+        }
+        List<Region> bucket = regionsInWorld.chunks.get(BlockKeys.chunkKeyOf(x, z));
+        if (bucket != null) {
+            for (Region region : bucket) {
+                if (region.contains(x, z)) {
+                    return region;
+                }
+            }
+        }
+        for (Region region : regionsInWorld.large) {
+            if (region.contains(x, z)) {
+                return region;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Any region intersecting the given box (bounds inclusive), or null if the box is free
+     */
+    public Region findOverlapping(String world, int minX, int minZ, int maxX, int maxZ) {
+        WorldRegions regionsInWorld = worlds.get(world);
+        if (regionsInWorld == null) {
+            return null;
+        }
+        if (chunkCount(minX, minZ, maxX, maxZ) > regions.size()) {
+            // Visiting the box's chunks would cost more than checking every region
+            for (Region region : regions.values()) {
+                if (region.world().equals(world) && region.overlaps(minX, minZ, maxX, maxZ)) {
+                    return region;
+                }
+            }
+            return null;
+        }
+        for (Region region : regionsInWorld.large) {
+            if (region.overlaps(minX, minZ, maxX, maxZ)) {
+                return region;
+            }
+        }
+        LongObjectHashMap<List<Region>> chunks = regionsInWorld.chunks;
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                List<Region> bucket = chunks.get(BlockKeys.chunkKey(chunkX, chunkZ));
+                if (bucket == null) {
+                    continue;
+                }
+                for (Region region : bucket) {
+                    if (region.overlaps(minX, minZ, maxX, maxZ)) {
+                        return region;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    public Region findOverlapping(Region candidate) {
+        return findOverlapping(candidate.world(), candidate.minX(), candidate.minZ(), candidate.maxX(), candidate.maxZ());
+    }
+
+    private static boolean isLarge(Region region) {
+        return chunkCount(region.minX(), region.minZ(), region.maxX(), region.maxZ()) > MAX_BUCKETED_CHUNKS;
+    }
+
+    private static long chunkCount(int minX, int minZ, int maxX, int maxZ) {
+        return ((long) (maxX >> 4) - (minX >> 4) + 1) * ((long) (maxZ >> 4) - (minZ >> 4) + 1);
+    }
+
+    public int size() {
+        return regions.size();
+    }
+
+    public void clear() {
+        worlds.clear();
+        regions.clear();
+    }
+
+    /**
+     * Copy of all regions
+     */
+    public List<Region> snapshot() {
+        return new ArrayList<>(regions.values());
+    }
+
+    private static final class WorldRegions {
+        final LongObjectHashMap<List<Region>> chunks = new LongObjectHashMap<>();
+        // Regions too large to list in every chunk they cover
+        final List<Region> large = new ArrayList<>();
+    }
+
+    /**
+     * A property footprint; bounds are inclusive block coordinates
+     */
+    public record Region(String id, String world, int minX, int minZ, int maxX, int maxZ) {
+
+        /**
+         * Footprint of a property defined by three corners: the first corner, the end of its length
+         * and the end of its breadth. The fourth corner completes the parallelogram.
+         */
+        public static Region fromCorners(String id, String world, int x1, int z1, int x2, int z2, int x3, int z3) {
+            int x4 = x2 + x3 - x1;
+            int z4 = z2 + z3 - z1;
+            return new Region(id, world,
+                    Math.min(Math.min(x1, x2), Math.min(x3, x4)), Math.min(Math.min(z1, z2), Math.min(z3, z4)),
+                    Math.max(Math.max(x1, x2), Math.max(x3, x4)), Math.max(Math.max(z1, z2), Math.max(z3, z4)));
+        }
+
+        public Region withId(String newId) {
+            return new Region(newId, world, minX, minZ, maxX, maxZ);
+        }
+
+        public boolean contains(int x, int z) {
+            return x >= minX && x <= maxX && z >= minZ && z <= maxZ;
+        }
+
+        public boolean overlaps(int otherMinX, int otherMinZ, int otherMaxX, int otherMaxZ) {
+            return minX <= otherMaxX && otherMinX <= maxX && minZ <= otherMaxZ && otherMinZ <= maxZ;
+        }
+    }
+
+    public interface ChangeListener {
+        void regionPut(Region region);
+
+        void regionRemoved(String id);
+    }
+}
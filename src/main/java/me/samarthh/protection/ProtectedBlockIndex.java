@@ -0,0 +1,304 @@
+package me.samarthh.protection;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Index of blocks that cannot be broken (property markers and signs).
+ * Coordinates are packed into longs and grouped per world and per chunk, so checking a block in a chunk
+ * without protected blocks costs a single primitive map probe and allocates nothing.
+ * A Bloom filter in front of the maps rejects almost every unprotected block with one array read; it is
+ * rebuilt in the background once removals or growth push its observed false-positive rate too high.
+ * Only accessed from the server main thread, except for the rebuild: it copies the keys on a background thread
+ * while holding the index's lock, which every change takes too, so the main thread never copies the whole index.
+ */
+public class ProtectedBlockIndex {
+    private static final int MIN_FILTER_CAPACITY = 1024;
+    private static final double MAX_FALSE_POSITIVE_RATE = 0.02;
+    private static final long MIN_FILTER_SAMPLES = 10_000;
+
+    private final Map<String, LongObjectHashMap<LongHashSet>> worlds = new HashMap<>();
+    private volatile int size;
+    private ChangeListener changeListener;
+    private BlockBloomFilter filter = new BlockBloomFilter(MIN_FILTER_CAPACITY);
+    // Filter being filled in the background; receives every add until it replaces the current one
+    private BlockBloomFilter nextFilter;
+    // Read by the metrics endpoint
+    private final LongAdder filterRejects = new LongAdder();
+    private final LongAdder filterFalsePositives = new LongAdder();
+
+    /**
+     * Listener notified of every successful add and remove, e.g. to journal them
+     */
+    public void setChangeListener(ChangeListener changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    public boolean contains(String world, int x, int y, int z) {
+        long key = BlockKeys.pack(x, y, z);
+        if (!filter.mightContain(filterKey(world, key))) {
+            filterRejects.increment();
+            return false;
+        }
+        LongObjectHashMap<LongHashSet> chunks = worlds.get(world);
+        LongHashSet blocks = chunks == null ? null : chunks.get(BlockKeys.chunkKeyOf(x, z));
+        if (blocks != null && blocks.contains(key)) {
+            return true;
+        }
+        filterFalsePositives.increment();
+        return false;
+    }
+
+    public boolean add(String world, int x, int y, int z) {
+        long key = BlockKeys.pack(x, y, z);
+        synchronized (worlds) {
+            LongHashSet blocks = worlds.computeIfAbsent(world, w -> new LongObjectHashMap<>())
+                    .computeIfAbsent(BlockKeys.chunkKeyOf(x, z), k -> new LongHashSet(4));
+            if (!blocks.add(key)) {
+                return false;
+            }
+            addToFilter(world, key);
+            size++;
+        }
+        if (changeListener != null) {
+            changeListener.blockAdded(world, x, y, z);
+        }
+        return true;
+    }
+
+    /**
+     * Add a block by its packed key, see {@link BlockKeys#pack(int, int, int)}
+     */
+    public boolean addPacked(String world, long key) {
+        return add(world, BlockKeys.unpackX(key), BlockKeys.unpackY(key), BlockKeys.unpackZ(key));
+    }
+
+    /**
+     * Remove a block. A block that is not in memory is still reported to the change listener, whose storage
+     * may hold it for a chunk that is not loaded.
+     * @return Whether the block was in memory
+     */
+    public boolean remove(String world, int x, int y, int z) {
+        boolean removed = false;
+        synchronized (worlds) {
+            LongObjectHashMap<LongHashSet> chunks = worlds.get(world);
+            long chunkKey = BlockKeys.chunkKeyOf(x, z);
+            LongHashSet blocks = chunks == null ? null : chunks.get(chunkKey);
+            if (blocks != null && blocks.remove(BlockKeys.pack(x, y, z))) {
+                if (blocks.isEmpty()) {
+                    chunks.remove(chunkKey);
+                }
+                size--;
+                removed = true;
+            }
+        }
+        if (changeListener != null) {
+            if (removed) {
+                changeListener.blockRemoved(world, x, y, z);
+            } else {
+                changeListener.absentBlockRemoved(world, x, y, z);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Protected blocks of a single chunk, as packed block keys
+     * @return The chunk's set, or null if it has no protected blocks. Must not be modified.
+     */
+    public LongHashSet getChunk(String world, int chunkX, int chunkZ) {
+        LongObjectHashMap<LongHashSet> chunks = worlds.get(world);
+        return chunks == null ? null : chunks.get(BlockKeys.chunkKey(chunkX, chunkZ));
+    }
+
+    /**
+     * Add a chunk's stored blocks without notifying the change listener (they are already persisted)
+     * @param keys Packed block keys, see {@link BlockKeys#pack(int, int, int)}
+     */
+    public void loadChunk(String world, int chunkX, int chunkZ, long[] keys) {
+        if (keys.length == 0) {
+            return;
+        }
+        synchronized (worlds) {
+            LongHashSet blocks = worlds.computeIfAbsent(world, w -> new LongObjectHashMap<>())
+                    .computeIfAbsent(BlockKeys.chunkKey(chunkX, chunkZ), k -> new LongHashSet(keys.length));
+            int added = 0;
+            for (long key : keys) {
+                if (blocks.add(key)) {
+                    addToFilter(world, key);
+                    added++;
+                }
+            }
+            size += added;
+        }
+    }
+
+    /**
+     * Drop a chunk's blocks from memory without notifying the change listener
+     */
+    public void unloadChunk(String world, int chunkX, int chunkZ) {
+        synchronized (worlds) {
+            LongObjectHashMap<LongHashSet> chunks = worlds.get(world);
+            if (chunks == null) {
+                return;
+            }
+            LongHashSet blocks = chunks.remove(BlockKeys.chunkKey(chunkX, chunkZ));
+            if (blocks != null) {
+                size -= blocks.size();
+                if (chunks.isEmpty()) {
+                    worlds.remove(world);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop every block of a world from memory without notifying the change listener
+     */
+    public void unloadWorld(String world) {
+        LongObjectHashMap<LongHashSet> chunks;
+        synchronized (worlds) {
+            chunks = worlds.remove(world);
+        }
+        if (chunks != null) {
+            int[] removed = new int[1];
+            chunks.forEach((chunkKey, blocks) -> removed[0] += blocks.size());
+            size -= removed[0];
+        }
+    }
+
+    /**
+     * Number of protected blocks; safe to read from any thread
+     */
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        synchronized (worlds) {
+            worlds.clear();
+            size = 0;
+        }
+        filter = new BlockBloomFilter(MIN_FILTER_CAPACITY);
+        nextFilter = null;
+        filterRejects.reset();
+        filterFalsePositives.reset();
+    }
+
+    private void addToFilter(String world, long key) {
+        long filterKey = filterKey(world, key);
+        filter.add(filterKey);
+        if (nextFilter != null) {
+            nextFilter.add(filterKey);
+        }
+    }
+
+    /**
+     * Block key salted with the world, so the same coordinates in different worlds hash apart
+     */
+    private static long filterKey(String world, long key) {
+        return key + world.hashCode() * 0x9E3779B97F4A7C15L;
+    }
+
+    /**
+     * Whether the Bloom filter should be rebuilt: it has outgrown its capacity, or lookups show
+     * a false-positive rate above the threshold (stale bits of removed or unloaded blocks)
+     */
+    public boolean filterNeedsRebuild() {
+        if (nextFilter != null) {
+            return false;
+        }
+        if (size > filter.capacity()) {
+            return true;
+        }
+        long falsePositives = filterFalsePositives.sum();
+        long samples = filterRejects.sum() + falsePositives;
+        return samples >= MIN_FILTER_SAMPLES && falsePositives > samples * MAX_FALSE_POSITIVE_RATE;
+    }
+
+    /**
+     * Observed share of lookups for unprotected blocks that the filter let through
+     */
+    public double getFilterFalsePositiveRate() {
+        long falsePositives = filterFalsePositives.sum();
+        long samples = filterRejects.sum() + falsePositives;
+        return samples == 0 ? 0 : (double) falsePositives / samples;
+    }
+
+    /**
+     * Build a fresh filter sized for twice the current blocks. The keys are copied and hashed into the new
+     * filter on background, and the filter is swapped in on mainThread. Blocks added meanwhile go into both
+     * filters, so the new one is complete when it is swapped in.
+     */
+    public void rebuildFilter(Executor background, Executor mainThread) {
+        if (nextFilter != null) {
+            return;
+        }
+        BlockBloomFilter rebuilt = new BlockBloomFilter(Math.max(MIN_FILTER_CAPACITY, size * 2));
+        nextFilter = rebuilt;
+        background.execute(() -> {
+            Map<String, long[]> keys;
+            // Changes wait for the copy; lookups do not take the lock and only read
+            synchronized (worlds) {
+                keys = snapshot();
+            }
+            keys.forEach((world, worldKeys) -> {
+                for (long key : worldKeys) {
+                    rebuilt.add(filterKey(world, key));
+                }
+            });
+            mainThread.execute(() -> {
+                // A clear() in the meantime discarded this rebuild
+                if (nextFilter == rebuilt) {
+                    filter = rebuilt;
+                    nextFilter = null;
+                    filterRejects.reset();
+                    filterFalsePositives.reset();
+                }
+            });
+        });
+    }
+
+    public void forEach(BlockVisitor visitor) {
+        for (Map.Entry<String, LongObjectHashMap<LongHashSet>> world : worlds.entrySet()) {
+            String worldName = world.getKey();
+            world.getValue().forEach((chunkKey, blocks) -> blocks.forEach(key ->
+                    visitor.visit(worldName, BlockKeys.unpackX(key), BlockKeys.unpackY(key), BlockKeys.unpackZ(key))));
+        }
+    }
+
+    /**
+     * Copy of all protected blocks as packed keys per world
+     */
+    public Map<String, long[]> snapshot() {
+        Map<String, long[]> snapshot = new HashMap<>();
+        for (Map.Entry<String, LongObjectHashMap<LongHashSet>> world : worlds.entrySet()) {
+            int[] count = new int[1];
+            world.getValue().forEach((chunkKey, blocks) -> count[0] += blocks.size());
+            long[] keys = new long[count[0]];
+            int[] offset = new int[1];
+            world.getValue().forEach((chunkKey, blocks) -> blocks.forEach(key -> keys[offset[0]++] = key));
+            snapshot.put(world.getKey(), keys);
+        }
+        return snapshot;
+    }
+
+    @FunctionalInterface
+    public interface BlockVisitor {
+        void visit(String world, int x, int y, int z);
+    }
+
+    public interface ChangeListener {
+        void blockAdded(String world, int x, int y, int z);
+
+        void blockRemoved(String world, int x, int y, int z);
+
+        /**
+         * A block not in memory was removed; storage that keeps blocks of unloaded chunks must drop it there
+         */
+        default void absentBlockRemoved(String world, int x, int y, int z) {
+        }
+    }
+}
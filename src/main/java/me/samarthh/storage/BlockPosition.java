@@ -0,0 +1,7 @@
+package me.samarthh.storage;
+
+/**
+ * Block coordinates in a world identified by name
+ */
+public record BlockPosition(String world, int x, int y, int z) {
+}
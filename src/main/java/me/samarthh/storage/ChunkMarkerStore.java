@@ -0,0 +1,234 @@
+package me.samarthh.storage;
+
+import me.samarthh.protection.BlockKeys;
+import me.samarthh.protection.LongHashSet;
+import me.samarthh.protection.LongObjectHashMap;
+import me.samarthh.protection.ProtectedBlockIndex;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.Plugin;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Keeps protected blocks in the PersistentDataContainer of the chunk they are in, as an array of packed
+ * block keys. The index only holds blocks of loaded chunks: a chunk's blocks are read when it loads and
+ * dropped when it unloads, so memory scales with loaded chunks rather than with every marker ever placed.
+ * The chunk is saved by the server together with its blocks, so there is no separate file to keep in sync.
+ * Blocks of worlds that are not loaded during migration are migrated when the world loads.
+ * Only accessed from the server main thread.
+ */
+public class ChunkMarkerStore implements ProtectedBlockIndex.ChangeListener, Listener {
+
+    private final Logger logger;
+    private final ProtectedBlockIndex blocks;
+    private final NamespacedKey protectedBlocksKey;
+    private final Runnable fileBlocksChanged;
+    // Blocks of worlds that were not loaded during migration; they stay in the marker file until the world loads
+    private final Map<String, long[]> unmigrated = new HashMap<>();
+
+    /**
+     * @param fileBlocksChanged Called when the unmigrated blocks change (their world loaded and they were
+     *                          migrated, or one was released), so the marker file can be rewritten
+     */
+    public ChunkMarkerStore(Plugin plugin, ProtectedBlockIndex blocks, Runnable fileBlocksChanged) {
+        this.logger = plugin.getLogger();
+        this.blocks = blocks;
+        this.protectedBlocksKey = new NamespacedKey(plugin, "protected_blocks");
+        this.fileBlocksChanged = fileBlocksChanged;
+    }
+
+    /**
+     * Move the blocks currently in the index (loaded from the marker file) into their chunks, then keep
+     * only the blocks of loaded chunks in memory. Chunks without data in memory are loaded to be written.
+     * Every world that received blocks is saved before this returns, so the caller can drop the migrated
+     * blocks from the marker file without a crash losing them. Blocks of worlds that are not loaded are
+     * kept (see {@link #getUnmigratedBlocks()}) and migrated when the world loads.
+     */
+    public void migrate() {
+        Map<String, long[]> fileBlocks = blocks.snapshot();
+        int migrated = 0;
+        for (Map.Entry<String, long[]> world : fileBlocks.entrySet()) {
+            World bukkitWorld = Bukkit.getWorld(world.getKey());
+            if (bukkitWorld == null) {
+                logger.info("World " + world.getKey() + " is not loaded, migrating its " + world.getValue().length
+                        + " protected blocks when it loads");
+                unmigrated.put(world.getKey(), world.getValue());
+                continue;
+            }
+            migrated += migrateWorld(bukkitWorld, world.getValue());
+        }
+        if (migrated > 0) {
+            logger.info("Migrated " + migrated + " protected blocks from the marker file to chunk data");
+        }
+
+        blocks.clear();
+        for (World world : Bukkit.getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) {
+                load(chunk);
+            }
+        }
+    }
+
+    /**
+     * Blocks of worlds that have not been loaded since the migration, as packed keys per world
+     */
+    public Map<String, long[]> getUnmigratedBlocks() {
+        return new HashMap<>(unmigrated);
+    }
+
+    /**
+     * Write blocks into their chunks and save the world
+     * @return Number of blocks written
+     */
+    private int migrateWorld(World bukkitWorld, long[] keys) {
+        LongObjectHashMap<LongHashSet> byChunk = new LongObjectHashMap<>();
+        for (long key : keys) {
+            byChunk.computeIfAbsent(BlockKeys.chunkKeyOf(BlockKeys.unpackX(key), BlockKeys.unpackZ(key)),
+                    k -> new LongHashSet(4)).add(key);
+        }
+        byChunk.forEach((chunkKey, chunkBlocks) -> {
+            PersistentDataContainer container = bukkitWorld.getChunkAt(
+                    BlockKeys.chunkX(chunkKey), BlockKeys.chunkZ(chunkKey)).getPersistentDataContainer();
+            // Keep anything already stored in the chunk, e.g. from an interrupted migration
+            long[] stored = container.get(protectedBlocksKey, PersistentDataType.LONG_ARRAY);
+            if (stored != null) {
+                for (long key : stored) {
+                    chunkBlocks.add(key);
+                }
+            }
+            container.set(protectedBlocksKey, PersistentDataType.LONG_ARRAY, chunkBlocks.toArray());
+        });
+        // The chunk data only reaches the disk with the next save; force it now
+        bukkitWorld.save();
+        return keys.length;
+    }
+
+    /**
+     * Migrate the blocks of a world that was not loaded at startup
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldLoad(WorldLoadEvent event) {
+        World world = event.getWorld();
+        long[] keys = unmigrated.get(world.getName());
+        if (keys == null) {
+            return;
+        }
+        int migrated = migrateWorld(world, keys);
+        unmigrated.remove(world.getName());
+        // Chunks loaded before the blocks were written are read again; already indexed blocks are skipped
+        for (Chunk chunk : world.getLoadedChunks()) {
+            load(chunk);
+        }
+        logger.info("Migrated " + migrated + " protected blocks of world " + world.getName() + " to chunk data");
+        fileBlocksChanged.run();
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        load(event.getChunk());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        Chunk chunk = event.getChunk();
+        blocks.unloadChunk(chunk.getWorld().getName(), chunk.getX(), chunk.getZ());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        blocks.unloadWorld(event.getWorld().getName());
+    }
+
+    private void load(Chunk chunk) {
+        long[] stored = chunk.getPersistentDataContainer().get(protectedBlocksKey, PersistentDataType.LONG_ARRAY);
+        if (stored != null) {
+            blocks.loadChunk(chunk.getWorld().getName(), chunk.getX(), chunk.getZ(), stored);
+        }
+    }
+
+    @Override
+    public void blockAdded(String world, int x, int y, int z) {
+        write(world, x >> 4, z >> 4);
+    }
+
+    @Override
+    public void blockRemoved(String world, int x, int y, int z) {
+        write(world, x >> 4, z >> 4);
+    }
+
+    /**
+     * The block may be stored in a chunk that is not loaded. Loading the chunk merges its stored blocks into
+     * the index, so removing the block again deletes it from the chunk; otherwise it would be protected again
+     * the next time the chunk loads.
+     */
+    @Override
+    public void absentBlockRemoved(String world, int x, int y, int z) {
+        World bukkitWorld = Bukkit.getWorld(world);
+        if (bukkitWorld == null) {
+            if (!removeUnmigrated(world, BlockKeys.pack(x, y, z))) {
+                logger.warning("World " + world + " is not loaded, cannot release protected block " + x + "," + y + "," + z);
+            }
+            return;
+        }
+        if (bukkitWorld.isChunkLoaded(x >> 4, z >> 4)) {
+            // The index holds every stored block of a loaded chunk, so the block was not protected
+            return;
+        }
+        bukkitWorld.getChunkAt(x >> 4, z >> 4);
+        blocks.remove(world, x, y, z);
+    }
+
+    /**
+     * Drop a block of a world that has not been migrated yet, so it is not migrated when the world loads
+     */
+    private boolean removeUnmigrated(String world, long key) {
+        long[] keys = unmigrated.get(world);
+        if (keys == null) {
+            return false;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == key) {
+                long[] remaining = new long[keys.length - 1];
+                System.arraycopy(keys, 0, remaining, 0, i);
+                System.arraycopy(keys, i + 1, remaining, i, remaining.length - i);
+                unmigrated.put(world, remaining);
+                fileBlocksChanged.run();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Store the chunk's current blocks. Getting the chunk loads it if needed, which merges its stored
+     * blocks into the index first, so nothing already in the chunk is overwritten.
+     */
+    private void write(String world, int chunkX, int chunkZ) {
+        World bukkitWorld = Bukkit.getWorld(world);
+        if (bukkitWorld == null) {
+            logger.warning("World " + world + " is not loaded, cannot store protected blocks of chunk " + chunkX + "," + chunkZ);
+            return;
+        }
+        PersistentDataContainer container = bukkitWorld.getChunkAt(chunkX, chunkZ).getPersistentDataContainer();
+        LongHashSet chunkBlocks = blocks.getChunk(world, chunkX, chunkZ);
+        if (chunkBlocks == null || chunkBlocks.isEmpty()) {
+            container.remove(protectedBlocksKey);
+        } else {
+            container.set(protectedBlocksKey, PersistentDataType.LONG_ARRAY, chunkBlocks.toArray());
+        }
+    }
+}
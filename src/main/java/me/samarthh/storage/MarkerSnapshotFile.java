@@ -0,0 +1,172 @@
+package me.samarthh.storage;
+
+import me.samarthh.protection.PropertyRegionIndex;
+import me.samarthh.protection.ProtectedBlockIndex;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Versioned binary snapshot of protected blocks, property sign positions and property footprints,
+ * read through a memory map.
+ * <pre>
+ * int    magic "SIOM"
+ * short  version
+ * int    world count, then per world: short length + UTF-8 name
+ * int    block count, then per block: int world index + long packed block key (12 bytes)
+ * int    property count, then per property: int world index + int x + int y + int z
+ *        + short length + UTF-8 property ID
+ * int    region count, then per region: int world index + int minX + int minZ + int maxX + int maxZ
+ *        + short length + UTF-8 region ID (version 2 and later)
+ * </pre>
+ */
+public final class MarkerSnapshotFile {
+    private static final int MAGIC = 0x53494F4D;
+    private static final short VERSION = 2;
+
+    private MarkerSnapshotFile() {
+    }
+
+    /**
+     * Read a snapshot
+     * @param file Snapshot file
+     * @param blocks Index to add the protected blocks to
+     * @param properties Map to put the property sign positions in
+     * @param regions Index to add the property footprints to
+     */
+    public static void read(Path file, ProtectedBlockIndex blocks, Map<String, BlockPosition> properties,
+                            PropertyRegionIndex regions) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a marker snapshot: " + file);
+            }
+            short version = buffer.getShort();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported marker snapshot version " + version);
+            }
+
+            String[] worlds = new String[buffer.getInt()];
+            for (int i = 0; i < worlds.length; i++) {
+                worlds[i] = readString(buffer);
+            }
+
+            int blockCount = buffer.getInt();
+            for (int i = 0; i < blockCount; i++) {
+                String world = worlds[buffer.getInt()];
+                blocks.addPacked(world, buffer.getLong());
+            }
+
+            int propertyCount = buffer.getInt();
+            for (int i = 0; i < propertyCount; i++) {
+                String world = worlds[buffer.getInt()];
+                int x = buffer.getInt();
+                int y = buffer.getInt();
+                int z = buffer.getInt();
+                properties.put(readString(buffer), new BlockPosition(world, x, y, z));
+            }
+
+            // Version 1 snapshots predate footprints
+            if (version >= 2) {
+                int regionCount = buffer.getInt();
+                for (int i = 0; i < regionCount; i++) {
+                    String world = worlds[buffer.getInt()];
+                    int minX = buffer.getInt();
+                    int minZ = buffer.getInt();
+                    int maxX = buffer.getInt();
+                    int maxZ = buffer.getInt();
+                    regions.put(new PropertyRegionIndex.Region(readString(buffer), world, minX, minZ, maxX, maxZ));
+                }
+            }
+        } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Truncated or corrupt marker snapshot: " + file, e);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write a snapshot and force it to disk before returning
+     * @param file Target file; callers should write to a temporary file and move it into place
+     * @param blocks Packed block keys per world, see {@link ProtectedBlockIndex#snapshot()}
+     * @param properties Sign position of every registered property
+     * @param regions Footprint of every property, see {@link PropertyRegionIndex#snapshot()}
+     */
+    public static void write(Path file, Map<String, long[]> blocks, Map<String, BlockPosition> properties,
+                             Collection<PropertyRegionIndex.Region> regions) throws IOException {
+        Map<String, Integer> worldIndexes = new LinkedHashMap<>();
+        blocks.keySet().forEach(world -> worldIndexes.putIfAbsent(world, worldIndexes.size()));
+        properties.values().forEach(pos -> worldIndexes.putIfAbsent(pos.world(), worldIndexes.size()));
+        regions.forEach(region -> worldIndexes.putIfAbsent(region.world(), worldIndexes.size()));
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+
+            out.writeInt(worldIndexes.size());
+            for (String world : worldIndexes.keySet()) {
+                writeString(out, world);
+            }
+
+            int blockCount = 0;
+            for (long[] keys : blocks.values()) {
+                blockCount += keys.length;
+            }
+            out.writeInt(blockCount);
+            for (Map.Entry<String, long[]> world : blocks.entrySet()) {
+                int worldIndex = worldIndexes.get(world.getKey());
+                for (long key : world.getValue()) {
+                    out.writeInt(worldIndex);
+                    out.writeLong(key);
+                }
+            }
+
+            out.writeInt(properties.size());
+            for (Map.Entry<String, BlockPosition> property : properties.entrySet()) {
+                BlockPosition pos = property.getValue();
+                out.writeInt(worldIndexes.get(pos.world()));
+                out.writeInt(pos.x());
+                out.writeInt(pos.y());
+                out.writeInt(pos.z());
+                writeString(out, property.getKey());
+            }
+
+            out.writeInt(regions.size());
+            for (PropertyRegionIndex.Region region : regions) {
+                out.writeInt(worldIndexes.get(region.world()));
+                out.writeInt(region.minX());
+                out.writeInt(region.minZ());
+                out.writeInt(region.maxX());
+                out.writeInt(region.maxZ());
+                writeString(out, region.id());
+            }
+            out.flush();
+            channel.force(true);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IOException("String too long for marker snapshot: " + value.length() + " characters");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,435 @@
+package me.samarthh.storage;
+
+import me.samarthh.protection.PropertyRegionIndex;
+import me.samarthh.protection.ProtectedBlockIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Persistence for protected blocks, property sign locations and property footprints.
+ * Every mutation is appended to a binary journal as it happens; compaction folds the journal into
+ * a memory-mapped {@link MarkerSnapshotFile} in the background, and startup loads the snapshot and replays
+ * the journal tail. The text files used by older versions are migrated on first load.
+ * The journal is forced to disk after every batch of records, and the snapshot and its directory entry are
+ * forced before the journal is truncated, so a power loss loses at most the batch being written.
+ * Mutations must be recorded from the server main thread in the order they are applied.
+ */
+public class MarkerStore implements ProtectedBlockIndex.ChangeListener, PropertyRegionIndex.ChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(MarkerStore.class);
+    private static final byte ADD_BLOCK = 1;
+    private static final byte REMOVE_BLOCK = 2;
+    private static final byte PUT_PROPERTY = 3;
+    private static final byte REMOVE_PROPERTY = 4;
+    private static final byte PUT_REGION = 5;
+    private static final byte REMOVE_REGION = 6;
+    private static final long COMPACTION_THRESHOLD_BYTES = 1024 * 1024;
+
+    private final Path snapshotFile;
+    private final Path legacyBlocksFile;
+    private final Path legacyPropertiesFile;
+    private final Path journalFile;
+    private final BlockingQueue<Runnable> queue = new LinkedBlockingQueue<>();
+    private final Thread writerThread;
+    private volatile boolean running = true;
+    private volatile boolean compacting;
+    private volatile long journalSize;
+    private FileChannel journalChannel;
+    private OutputStream journal;
+
+    public MarkerStore(Path dataFolder) {
+        this.snapshotFile = dataFolder.resolve("markers.dat");
+        this.legacyBlocksFile = dataFolder.resolve("unbreakable_blocks.txt");
+        this.legacyPropertiesFile = dataFolder.resolve("property_ids.txt");
+        this.journalFile = dataFolder.resolve("markers.journal");
+        this.writerThread = new Thread(this::writeLoop, "Siose-Marker-Journal");
+        this.writerThread.setDaemon(true);
+    }
+
+    /**
+     * Load the snapshot and replay the journal, then start accepting mutations
+     * @param blocks Index to fill with protected blocks
+     * @return Sign position of every registered property, by property ID
+     */
+    public Map<String, BlockPosition> load(ProtectedBlockIndex blocks) throws IOException {
+        return load(blocks, new PropertyRegionIndex());
+    }
+
+    /**
+     * Load the snapshot and replay the journal, then start accepting mutations
+     * @param blocks Index to fill with protected blocks
+     * @param regions Index to fill with property footprints
+     * @return Sign position of every registered property, by property ID
+     */
+    public Map<String, BlockPosition> load(ProtectedBlockIndex blocks, PropertyRegionIndex regions) throws IOException {
+        Files.createDirectories(journalFile.getParent());
+        Map<String, BlockPosition> properties = new LinkedHashMap<>();
+
+        long start = System.nanoTime();
+        boolean migrate = false;
+        if (Files.exists(snapshotFile)) {
+            MarkerSnapshotFile.read(snapshotFile, blocks, properties, regions);
+        } else if (Files.exists(legacyBlocksFile) || Files.exists(legacyPropertiesFile)) {
+            loadLegacyBlocks(blocks);
+            loadLegacyProperties(properties);
+            migrate = true;
+        }
+        int replayed = replayJournal(blocks, properties, regions);
+        logger.info("Loaded {} protected blocks, {} properties and {} footprints in {} ms ({} journal records replayed)",
+                blocks.size(), properties.size(), regions.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), replayed);
+
+        if (migrate) {
+            migrateLegacyFiles(blocks, properties);
+        }
+
+        journalChannel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        journal = new BufferedOutputStream(Channels.newOutputStream(journalChannel), 64 * 1024);
+        journalSize = journalChannel.size();
+        writerThread.start();
+        return properties;
+    }
+
+    private void loadLegacyBlocks(ProtectedBlockIndex blocks) throws IOException {
+        if (!Files.exists(legacyBlocksFile)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(legacyBlocksFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) continue;
+                String[] parts = line.split(",");
+                if (parts.length == 4) {
+                    try {
+                        blocks.add(parts[0], Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), Integer.parseInt(parts[3]));
+                    } catch (NumberFormatException e) {
+                        logger.warn("Invalid location format in unbreakable blocks file: {}", line);
+                    }
+                }
+            }
+        }
+    }
+
+    private void loadLegacyProperties(Map<String, BlockPosition> properties) throws IOException {
+        if (!Files.exists(legacyPropertiesFile)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(legacyPropertiesFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) continue;
+                String[] parts = line.split(",");
+                if (parts.length == 5) {
+                    try {
+                        properties.put(parts[0], new BlockPosition(parts[1],
+                                Integer.parseInt(parts[2]), Integer.parseInt(parts[3]), Integer.parseInt(parts[4])));
+                    } catch (NumberFormatException e) {
+                        logger.warn("Invalid property ID format in file: {}", line);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * One-time conversion of the text files into a binary snapshot. The text files are kept with a
+     * .migrated suffix so a downgrade can still find them.
+     */
+    private void migrateLegacyFiles(ProtectedBlockIndex blocks, Map<String, BlockPosition> properties) throws IOException {
+        writeSnapshotFile(blocks.snapshot(), properties, List.of());
+        Files.deleteIfExists(journalFile);
+        for (Path legacy : List.of(legacyBlocksFile, legacyPropertiesFile)) {
+            if (Files.exists(legacy)) {
+                Files.move(legacy, legacy.resolveSibling(legacy.getFileName() + ".migrated"), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        logger.info("Migrated text marker files to {}", snapshotFile.getFileName());
+    }
+
+    /**
+     * Apply every intact journal record; a torn or corrupt tail is truncated away
+     */
+    private int replayJournal(ProtectedBlockIndex blocks, Map<String, BlockPosition> properties,
+                              PropertyRegionIndex regions) throws IOException {
+        if (!Files.exists(journalFile)) {
+            return 0;
+        }
+
+        int records = 0;
+        long validLength = 0;
+        long fileLength = Files.size(journalFile);
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(journalFile), 64 * 1024))) {
+            while (validLength < fileLength) {
+                int length = in.readInt();
+                if (length <= 0 || validLength + 8 + length > fileLength) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                crc.reset();
+                crc.update(payload);
+                if (in.readInt() != (int) crc.getValue()) {
+                    break;
+                }
+                apply(new DataInputStream(new ByteArrayInputStream(payload)), blocks, properties, regions);
+                validLength += 8 + length;
+                records++;
+            }
+        } catch (EOFException e) {
+            // Torn final record, handled below
+        }
+
+        if (validLength < fileLength) {
+            logger.warn("Discarding {} bytes of incomplete journal data", fileLength - validLength);
+            try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+        return records;
+    }
+
+    private void apply(DataInputStream in, ProtectedBlockIndex blocks, Map<String, BlockPosition> properties,
+                       PropertyRegionIndex regions) throws IOException {
+        byte op = in.readByte();
+        switch (op) {
+            case ADD_BLOCK -> blocks.add(in.readUTF(), in.readInt(), in.readInt(), in.readInt());
+            case REMOVE_BLOCK -> blocks.remove(in.readUTF(), in.readInt(), in.readInt(), in.readInt());
+            case PUT_PROPERTY -> properties.put(in.readUTF(), new BlockPosition(in.readUTF(), in.readInt(), in.readInt(), in.readInt()));
+            case REMOVE_PROPERTY -> properties.remove(in.readUTF());
+            case PUT_REGION -> regions.put(new PropertyRegionIndex.Region(in.readUTF(), in.readUTF(),
+                    in.readInt(), in.readInt(), in.readInt(), in.readInt()));
+            case REMOVE_REGION -> regions.remove(in.readUTF());
+            default -> throw new IOException("Unknown journal operation " + op);
+        }
+    }
+
+    @Override
+    public void blockAdded(String world, int x, int y, int z) {
+        append(out -> {
+            out.writeByte(ADD_BLOCK);
+            writeBlock(out, world, x, y, z);
+        });
+    }
+
+    @Override
+    public void blockRemoved(String world, int x, int y, int z) {
+        append(out -> {
+            out.writeByte(REMOVE_BLOCK);
+            writeBlock(out, world, x, y, z);
+        });
+    }
+
+    public void propertyPut(String propertyId, BlockPosition signPosition) {
+        append(out -> {
+            out.writeByte(PUT_PROPERTY);
+            out.writeUTF(propertyId);
+            writeBlock(out, signPosition.world(), signPosition.x(), signPosition.y(), signPosition.z());
+        });
+    }
+
+    public void propertyRemoved(String propertyId) {
+        append(out -> {
+            out.writeByte(REMOVE_PROPERTY);
+            out.writeUTF(propertyId);
+        });
+    }
+
+    @Override
+    public void regionPut(PropertyRegionIndex.Region region) {
+        append(out -> {
+            out.writeByte(PUT_REGION);
+            out.writeUTF(region.id());
+            out.writeUTF(region.world());
+            out.writeInt(region.minX());
+            out.writeInt(region.minZ());
+            out.writeInt(region.maxX());
+            out.writeInt(region.maxZ());
+        });
+    }
+
+    @Override
+    public void regionRemoved(String id) {
+        append(out -> {
+            out.writeByte(REMOVE_REGION);
+            out.writeUTF(id);
+        });
+    }
+
+    private static void writeBlock(DataOutputStream out, String world, int x, int y, int z) throws IOException {
+        out.writeUTF(world);
+        out.writeInt(x);
+        out.writeInt(y);
+        out.writeInt(z);
+    }
+
+    /**
+     * Encode a record on the calling thread and hand the framed bytes to the writer
+     */
+    private void append(RecordEncoder encoder) {
+        if (!running) {
+            logger.warn("Marker journal is closed, dropping mutation");
+            return;
+        }
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(48);
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.writeInt(0); // length placeholder
+            encoder.encode(out);
+            byte[] record = Arrays.copyOf(buffer.toByteArray(), buffer.size() + 4);
+            int length = record.length - 8;
+            writeInt(record, 0, length);
+            CRC32 crc = new CRC32();
+            crc.update(record, 4, length);
+            writeInt(record, record.length - 4, (int) crc.getValue());
+            queue.add(() -> writeRecord(record));
+        } catch (IOException e) {
+            logger.error("Failed to encode journal record: {}", e.getMessage());
+        }
+    }
+
+    private static void writeInt(byte[] target, int offset, int value) {
+        target[offset] = (byte) (value >>> 24);
+        target[offset + 1] = (byte) (value >>> 16);
+        target[offset + 2] = (byte) (value >>> 8);
+        target[offset + 3] = (byte) value;
+    }
+
+    private void writeRecord(byte[] record) {
+        try {
+            journal.write(record);
+            journalSize += record.length;
+        } catch (IOException e) {
+            logger.error("Failed to append to marker journal: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Whether the journal has grown enough to be worth folding into a snapshot
+     */
+    public boolean needsCompaction() {
+        return !compacting && journalSize > COMPACTION_THRESHOLD_BYTES;
+    }
+
+    /**
+     * Write a snapshot and truncate the journal on the writer thread.
+     * The arguments must be captured on the main thread so they include every mutation journaled so far.
+     * @param blocks Packed block keys per world, see {@link ProtectedBlockIndex#snapshot()}
+     * @param properties Sign position of every registered property
+     * @param regions Footprint of every property, see {@link PropertyRegionIndex#snapshot()}
+     */
+    public void compact(Map<String, long[]> blocks, Map<String, BlockPosition> properties, List<PropertyRegionIndex.Region> regions) {
+        if (compacting || !running) {
+            return;
+        }
+        compacting = true;
+        queue.add(() -> {
+            try {
+                writeSnapshot(blocks, properties, regions);
+            } catch (IOException e) {
+                logger.error("Failed to compact marker journal: {}", e.getMessage());
+            } finally {
+                compacting = false;
+            }
+        });
+    }
+
+    private void writeSnapshot(Map<String, long[]> blocks, Map<String, BlockPosition> properties,
+                               List<PropertyRegionIndex.Region> regions) throws IOException {
+        long start = System.nanoTime();
+        journal.flush();
+
+        writeSnapshotFile(blocks, properties, regions);
+
+        // Everything in the journal is now part of the durable snapshot
+        journalChannel.truncate(0);
+        journalSize = 0;
+        logger.info("Compacted marker journal in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void writeSnapshotFile(Map<String, long[]> blocks, Map<String, BlockPosition> properties,
+                                   List<PropertyRegionIndex.Region> regions) throws IOException {
+        Path temp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        MarkerSnapshotFile.write(temp, blocks, properties, regions);
+        Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(snapshotFile.getParent());
+    }
+
+    /**
+     * Make a rename in the directory durable. Not every platform can open a directory (Windows cannot);
+     * there the rename is left to the file system.
+     */
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            logger.debug("Could not sync directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private void writeLoop() {
+        List<Runnable> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                Runnable first = queue.poll(250, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch);
+                for (Runnable op : batch) {
+                    op.run();
+                }
+                journal.flush();
+                journalChannel.force(false);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (IOException e) {
+                logger.error("Failed to flush marker journal: {}", e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+
+        try {
+            journal.flush();
+            journalChannel.force(false);
+            journal.close();
+        } catch (IOException e) {
+            logger.error("Failed to close marker journal: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Flush pending journal records to disk and stop the writer
+     */
+    public void close() {
+        running = false;
+        if (!writerThread.isAlive()) {
+            return;
+        }
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    private interface RecordEncoder {
+        void encode(DataOutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,32 @@
+package me.samarthh.storage;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A property request waiting to be accepted by the backend
+ * @param id Local request ID, also sent as the idempotency key
+ * @param player Player who defined the property
+ * @param token Player's token at submission time
+ * @param entity Property entity JSON
+ * @param sign Where the property sign goes once the request is confirmed
+ * @param corners Protected fence corners, released if the request is rejected
+ * @param createdAt Submission time (epoch millis)
+ * @param attempts Failed delivery attempts so far
+ * @param nextAttemptAt Earliest time of the next attempt (epoch millis)
+ */
+public record OutboxEntry(String id, UUID player, String token, String entity, BlockPosition sign,
+                          List<BlockPosition> corners, long createdAt, int attempts, long nextAttemptAt) {
+
+    public static OutboxEntry create(UUID player, String token, String entity, BlockPosition sign, List<BlockPosition> corners) {
+        long now = System.currentTimeMillis();
+        return new OutboxEntry(UUID.randomUUID().toString(), player, token, entity, sign, corners, now, 0, now);
+    }
+
+    /**
+     * Copy of this entry after another failed attempt
+     */
+    public OutboxEntry retryAt(long nextAttemptAt) {
+        return new OutboxEntry(id, player, token, entity, sign, corners, createdAt, attempts + 1, nextAttemptAt);
+    }
+}
@@ -0,0 +1,76 @@
+package me.samarthh.storage;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Outbox entries on disk, one JSON file per entry in the outbox directory.
+ * Files are replaced atomically, so a crash leaves either the old or the new version of an entry.
+ */
+public class OutboxStore {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxStore.class);
+    private static final String SUFFIX = ".json";
+
+    private final Path directory;
+    private final Gson gson = new Gson();
+
+    /**
+     * @param directory Directory holding the entries; created by {@link #loadAll()} if missing
+     */
+    public OutboxStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Read every stored entry, oldest first. Unreadable files are moved aside as .corrupt.
+     */
+    public List<OutboxEntry> loadAll() throws IOException {
+        Files.createDirectories(directory);
+        List<OutboxEntry> entries = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files.filter(f -> f.toString().endsWith(SUFFIX))::iterator) {
+                try {
+                    OutboxEntry entry = gson.fromJson(Files.readString(file, StandardCharsets.UTF_8), OutboxEntry.class);
+                    if (entry == null || entry.id() == null || entry.corners() == null) {
+                        throw new JsonParseException("incomplete entry");
+                    }
+                    entries.add(entry);
+                } catch (JsonParseException e) {
+                    logger.warn("Skipping unreadable outbox entry {}: {}", file.getFileName(), e.getMessage());
+                    Files.move(file, file.resolveSibling(file.getFileName() + ".corrupt"), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+        entries.sort(Comparator.comparingLong(OutboxEntry::createdAt));
+        return entries;
+    }
+
+    /**
+     * Create or replace an entry; returns once it is on disk
+     */
+    public void write(OutboxEntry entry) throws IOException {
+        Path file = fileOf(entry.id());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(temp, gson.toJson(entry), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE, StandardOpenOption.SYNC);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public void delete(String id) throws IOException {
+        Files.deleteIfExists(fileOf(id));
+    }
+
+    private Path fileOf(String id) {
+        return directory.resolve(id + SUFFIX);
+    }
+}
@@ -0,0 +1,282 @@
+package me.samarthh.storage;
+
+import me.samarthh.metrics.Counter;
+import me.samarthh.metrics.Histogram;
+import me.samarthh.metrics.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SQLite storage for player authentication rows.
+ * All writes go through a single writer thread that group-commits whatever is queued into one transaction;
+ * reads run on a small pool of threads that each own a read-only connection. Every operation is asynchronous.
+ */
+public class UserDatabase {
+    private static final Logger logger = LoggerFactory.getLogger(UserDatabase.class);
+    private static final int MAX_BATCH_SIZE = 512;
+    private static final String UPSERT_SQL = "INSERT OR REPLACE INTO users (uuid, token, authenticated) VALUES (?, ?, ?)";
+    private static final String SELECT_SQL = "SELECT token, authenticated FROM users WHERE uuid = ?";
+    private static final Histogram LOAD_LATENCY = Metrics.histogram("siose_db_query_duration_seconds",
+            "User database latency per operation", "operation", "load");
+    private static final Histogram COMMIT_LATENCY = Metrics.histogram("siose_db_query_duration_seconds",
+            "User database latency per operation", "operation", "commit");
+    private static final Counter COMMITTED_WRITES = Metrics.counter("siose_db_writes_total",
+            "User rows written by group commits");
+
+    private final String url;
+    private final BlockingQueue<WriteOp> writeQueue = new LinkedBlockingQueue<>();
+    private final Thread writerThread;
+    private final ExecutorService readers;
+    private final ThreadLocal<ReadConnection> readConnection = new ThreadLocal<>();
+    private final List<ReadConnection> readConnections = new CopyOnWriteArrayList<>();
+    private volatile boolean running = true;
+    private Connection writeConnection;
+    private PreparedStatement upsertStatement;
+
+    public UserDatabase(String path) {
+        this(path, 2);
+    }
+
+    public UserDatabase(String path, int readerCount) {
+        this.url = "jdbc:sqlite:" + path;
+        try {
+            writeConnection = DriverManager.getConnection(url);
+            try (Statement stmt = writeConnection.createStatement()) {
+                stmt.execute("PRAGMA journal_mode=WAL");
+                stmt.execute("PRAGMA synchronous=NORMAL");
+                stmt.execute("PRAGMA busy_timeout=5000");
+            }
+            createTable();
+            upsertStatement = writeConnection.prepareStatement(UPSERT_SQL);
+            writeConnection.setAutoCommit(false);
+        } catch (SQLException e) {
+            logger.error("Failed to initialize database: {}", e.getMessage(), e);
+        }
+
+        AtomicInteger readerIds = new AtomicInteger();
+        this.readers = Executors.newFixedThreadPool(readerCount, r -> {
+            Thread thread = new Thread(r, "Siose-DB-Reader-" + readerIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.writerThread = new Thread(this::writeLoop, "Siose-DB-Writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    private void createTable() throws SQLException {
+        String sql = "CREATE TABLE IF NOT EXISTS users (" +
+                "uuid TEXT PRIMARY KEY," +
+                "token TEXT," +
+                "authenticated INTEGER DEFAULT 0" +
+                ")";
+        try (Statement stmt = writeConnection.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    /**
+     * Load the stored row for a player
+     * @return CompletableFuture with the row, or null if the player has none
+     */
+    public CompletableFuture<UserRecord> load(UUID uuid) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                PreparedStatement pstmt = readConnection().select;
+                pstmt.setString(1, uuid.toString());
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        return new UserRecord(rs.getString("token"), rs.getInt("authenticated") == 1);
+                    }
+                }
+                return null;
+            } catch (SQLException e) {
+                logger.error("Error loading user {}: {}", uuid, e.getMessage());
+                throw new CompletionException(e);
+            } finally {
+                LOAD_LATENCY.observeSince(start);
+            }
+        }, readers);
+    }
+
+    /**
+     * Queue an insert-or-replace of a player's row
+     * @return CompletableFuture completed once the transaction containing the write has committed
+     */
+    public CompletableFuture<Void> save(UUID uuid, String token, boolean authenticated) {
+        WriteOp op = new WriteOp(uuid, token, authenticated);
+        // close() stops the writer under the same lock, so a write is either queued before the writer's
+        // final drain or refused; it can never be queued after it
+        synchronized (writeQueue) {
+            if (!running) {
+                op.future.completeExceptionally(new IllegalStateException("Database is closed"));
+                return op.future;
+            }
+            writeQueue.add(op);
+        }
+        return op.future;
+    }
+
+    private ReadConnection readConnection() throws SQLException {
+        ReadConnection conn = readConnection.get();
+        if (conn == null) {
+            conn = new ReadConnection(DriverManager.getConnection(url));
+            readConnection.set(conn);
+            readConnections.add(conn);
+        }
+        return conn;
+    }
+
+    private void writeLoop() {
+        List<WriteOp> batch = new ArrayList<>();
+        while (running || !writeQueue.isEmpty()) {
+            try {
+                WriteOp first = writeQueue.poll(250, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                writeQueue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Group commit: write every queued operation in one transaction
+     */
+    private void commit(List<WriteOp> batch) {
+        long start = System.nanoTime();
+        try {
+            if (upsertStatement == null) {
+                throw new SQLException("Database is not initialized");
+            }
+            try {
+                for (WriteOp op : batch) {
+                    upsertStatement.setString(1, op.uuid.toString());
+                    upsertStatement.setString(2, op.token);
+                    upsertStatement.setInt(3, op.authenticated ? 1 : 0);
+                    upsertStatement.addBatch();
+                }
+                upsertStatement.executeBatch();
+                writeConnection.commit();
+                COMMIT_LATENCY.observeSince(start);
+                COMMITTED_WRITES.add(batch.size());
+            } catch (SQLException e) {
+                upsertStatement.clearBatch();
+                writeConnection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            logger.error("Error committing {} user writes: {}", batch.size(), e.getMessage());
+            for (WriteOp op : batch) {
+                op.future.completeExceptionally(e);
+            }
+            return;
+        }
+
+        for (WriteOp op : batch) {
+            op.future.complete(null);
+        }
+    }
+
+    /**
+     * Number of writes waiting for the writer thread
+     */
+    public int getPendingWrites() {
+        return writeQueue.size();
+    }
+
+    /**
+     * Flush all queued writes and close every connection
+     */
+    public void close() {
+        synchronized (writeQueue) {
+            running = false;
+        }
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            logger.warn("Timed out waiting for the database writer; {} writes were not committed", writeQueue.size());
+        }
+        WriteOp dropped;
+        while ((dropped = writeQueue.poll()) != null) {
+            dropped.future.completeExceptionally(new IllegalStateException("Database is closed"));
+        }
+
+        readers.shutdown();
+        try {
+            readers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        for (ReadConnection conn : readConnections) {
+            conn.close();
+        }
+        try {
+            if (writeConnection != null) {
+                writeConnection.close();
+            }
+        } catch (SQLException e) {
+            logger.error("Error closing database connection: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Stored authentication row of a single player
+     */
+    public record UserRecord(String token, boolean authenticated) {
+    }
+
+    private static final class WriteOp {
+        private final UUID uuid;
+        private final String token;
+        private final boolean authenticated;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private WriteOp(UUID uuid, String token, boolean authenticated) {
+            this.uuid = uuid;
+            this.token = token;
+            this.authenticated = authenticated;
+        }
+    }
+
+    private static final class ReadConnection {
+        private final Connection connection;
+        private final PreparedStatement select;
+
+        private ReadConnection(Connection connection) throws SQLException {
+            this.connection = connection;
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("PRAGMA busy_timeout=5000");
+                stmt.execute("PRAGMA query_only=1");
+            }
+            this.select = connection.prepareStatement(SELECT_SQL);
+        }
+
+        private void close() {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                logger.error("Error closing read connection: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+import me.samarthh.api.CallbackFileWatcher;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+
+public class CallbackFileWatcherTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+    private Path file;
+    private CallbackFileWatcher watcher;
+
+    @Before
+    public void setUp() {
+        file = folder.getRoot().toPath().resolve("property_callbacks.json");
+        watcher = new CallbackFileWatcher(file, (propertyId, status) -> received.add(propertyId + "=" + status));
+    }
+
+    @After
+    public void tearDown() {
+        watcher.stop();
+    }
+
+    @Test
+    public void testConsumedFileIsRotatedAndRecreated() throws Exception {
+        append("prop-1:approved\nprop-2:pending\n");
+        watcher.start();
+        assertEquals("prop-1=approved", next());
+        assertEquals("prop-2=pending", next());
+        waitUntil(() -> !Files.exists(file));
+
+        // Writers start a new file; it is read from the beginning
+        append("prop-3:rejected\n");
+        assertEquals("prop-3=rejected", next());
+        waitUntil(() -> !Files.exists(file));
+        assertNull(received.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testOversizedLineIsSkipped() throws Exception {
+        append("x".repeat(3 << 20) + ":approved\nprop-1:approved\n");
+        watcher.start();
+        assertEquals("prop-1=approved", next());
+        assertNull(received.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testRewrittenFileIsReadFromTheStart() throws Exception {
+        // The partial last line keeps the file from being rotated
+        append("prop-1:approved\nprop-2:pen");
+        watcher.start();
+        assertEquals("prop-1=approved", next());
+
+        // Truncated and rewritten to a larger size: the old offset now points into the middle of a line
+        Files.writeString(file, "prop-long-identifier-3:rejected\n", StandardCharsets.UTF_8);
+        assertEquals("prop-long-identifier-3=rejected", next());
+    }
+
+    private void append(String content) throws Exception {
+        Files.writeString(file, content, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private String next() throws InterruptedException {
+        String value = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull("no callback line received", value);
+        return value;
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue("condition not met in time", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+}
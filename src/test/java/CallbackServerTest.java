@@ -0,0 +1,238 @@
+import me.samarthh.api.CallbackServer;
+import me.samarthh.api.JdkHttpEngine;
+import me.samarthh.api.PropertyEventBus;
+import me.samarthh.api.PropertyStatusReceiver;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.Set;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class CallbackServerTest {
+
+    private final ConcurrentSkipListMap<String, String> statuses = new ConcurrentSkipListMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private final PropertyEventBus eventBus = new PropertyEventBus(16, 64, 2);
+    private final HttpClient http = HttpClient.newHttpClient();
+    private CallbackServer server;
+
+    @Before
+    public void setUp() {
+        statuses.put("prop-1", "pending");
+        statuses.put("prop-2", "pending");
+        server = new CallbackServer(Logger.getLogger("CallbackServerTest"), new Receiver(), eventBus, new JdkHttpEngine(), 0, "127.0.0.1");
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testStatusUpdate() throws Exception {
+        HttpResponse<String> response = post("/api/property/status", "{\"propertyId\": \"prop-1\", \"status\": \"approved\"}");
+        assertEquals(200, response.statusCode());
+        assertEquals("approved", statuses.get("prop-1"));
+        assertEquals("*", response.headers().firstValue("Access-Control-Allow-Origin").orElse(null));
+
+        assertEquals(400, post("/api/property/status", "{\"propertyId\": \"prop-1\"}").statusCode());
+    }
+
+    @Test
+    public void testBatchUpdate() throws Exception {
+        HttpResponse<String> response = post("/api/property/status/batch",
+                "{\"propertyId\": \"prop-1\", \"status\": \"approved\"}\n{\"propertyId\": \"missing\", \"status\": \"approved\"}\n");
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("\"accepted\":1"));
+        assertTrue(response.body().contains("unknown_property"));
+        assertEquals("approved", statuses.get("prop-1"));
+    }
+
+    @Test
+    public void testListHealthAndUnknownRoutes() throws Exception {
+        HttpResponse<String> list = get("/api/property/list");
+        assertEquals(200, list.statusCode());
+        assertTrue(list.body().contains("prop-1"));
+        assertTrue(list.body().contains("prop-2"));
+
+        assertEquals(200, get("/health").statusCode());
+        assertEquals(404, get("/api/property/list/extra").statusCode());
+        assertEquals(405, get("/api/property/status").statusCode());
+        String metrics = get("/metrics").body();
+        assertTrue(metrics.contains("siose_callback_requests_total{route=\"/api/property/status\",method=\"GET\",code=\"405\"} "));
+        assertTrue(metrics.contains("siose_callback_request_duration_seconds_count{route=\"/health\"} "));
+    }
+
+    @Test
+    public void testListIsPagedWithCursor() throws Exception {
+        statuses.put("prop-3", "pending");
+
+        HttpResponse<String> first = get("/api/property/list?limit=2");
+        assertEquals("{\"properties\":[\"prop-1\",\"prop-2\"],\"nextCursor\":\"prop-2\"}", first.body());
+
+        HttpResponse<String> last = get("/api/property/list?limit=2&cursor=prop-2");
+        assertEquals("{\"properties\":[\"prop-3\"],\"nextCursor\":null}", last.body());
+
+        assertEquals(400, get("/api/property/list?limit=0").statusCode());
+    }
+
+    @Test
+    public void testUnchangedListAnswersNotModified() throws Exception {
+        HttpResponse<String> first = get("/api/property/list");
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+
+        HttpResponse<String> unchanged = http.send(HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + "/api/property/list"))
+                .header("If-None-Match", etag).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(304, unchanged.statusCode());
+        assertEquals("", unchanged.body());
+
+        statuses.put("prop-3", "pending");
+        version.incrementAndGet();
+        HttpResponse<String> changed = http.send(HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + "/api/property/list"))
+                .header("If-None-Match", etag).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, changed.statusCode());
+        assertTrue(changed.body().contains("prop-3"));
+    }
+
+    @Test
+    public void testListEtagDoesNotMatchAcrossRestarts() throws Exception {
+        String etag = get("/api/property/list").headers().firstValue("ETag").orElseThrow();
+
+        // Same list version, but a new server instance (as after a restart) must not honour the old tag
+        CallbackServer restarted = new CallbackServer(Logger.getLogger("CallbackServerTest"), new Receiver(), eventBus, new JdkHttpEngine(), 0, "127.0.0.1");
+        restarted.start();
+        try {
+            HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + restarted.getPort() + "/api/property/list"))
+                    .header("If-None-Match", etag).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+        } finally {
+            restarted.stop();
+        }
+    }
+
+    @Test
+    public void testServersAreInstanceScoped() throws Exception {
+        CallbackServer second = new CallbackServer(Logger.getLogger("CallbackServerTest"), new Receiver(), eventBus, new JdkHttpEngine(), 0, "127.0.0.1");
+        second.start();
+        try {
+            assertNotEquals(server.getPort(), second.getPort());
+            assertEquals(200, http.send(HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + second.getPort() + "/health")).build(),
+                    HttpResponse.BodyHandlers.ofString()).statusCode());
+        } finally {
+            second.stop();
+        }
+    }
+
+    @Test
+    public void testEventStreamPushesAndResumes() throws Exception {
+        Iterator<String> lines = subscribe(null);
+        assertEquals("retry: 15000", lines.next());
+        post("/api/property/status", "{\"propertyId\": \"prop-1\", \"status\": \"approved\"}");
+        post("/api/property/status", "{\"propertyId\": \"prop-2\", \"status\": \"rejected\"}");
+
+        String first = nextEventLine(lines);
+        assertTrue(first.endsWith("-1"));
+        assertEquals("event: status", lines.next());
+        assertTrue(lines.next().contains("\"status\":\"approved\""));
+
+        // Reconnecting after event 1 replays only what was missed
+        Iterator<String> resumed = subscribe(first.substring("id: ".length()));
+        assertEquals(first.substring(0, first.length() - 1) + "2", nextEventLine(resumed));
+        assertTrue(resumed.next().equals("event: status") && resumed.next().contains("prop-2"));
+
+        // Both subscriber slots are taken
+        assertEquals(503, get("/api/property/events").statusCode());
+    }
+
+    @Test
+    public void testEventStreamResetsClientsOfAnEarlierStart() throws Exception {
+        post("/api/property/status", "{\"propertyId\": \"prop-1\", \"status\": \"approved\"}");
+
+        // Sequence numbers restarted with the server; event 500 of the last start says nothing about this one
+        Iterator<String> lines = subscribe("500");
+        assertEquals("retry: 15000", lines.next());
+        assertEquals("", lines.next());
+        assertEquals("event: reset", lines.next());
+        assertTrue(lines.next().contains("\"restarted\":true"));
+        assertTrue(nextEventLine(lines).endsWith("-1"));
+    }
+
+    private Iterator<String> subscribe(String lastEventId) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + "/api/property/events"));
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        HttpResponse<Stream<String>> response = http.send(request.build(), HttpResponse.BodyHandlers.ofLines());
+        assertEquals(200, response.statusCode());
+        return response.body().iterator();
+    }
+
+    private static String nextEventLine(Iterator<String> lines) {
+        String line = lines.next();
+        while (!line.startsWith("id: ")) {
+            line = lines.next();
+        }
+        return line;
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return http.send(HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String body) throws Exception {
+        return http.send(HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path))
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private class Receiver implements PropertyStatusReceiver {
+        @Override
+        public void receivePropertyStatusUpdate(String propertyId, String status) {
+            statuses.put(propertyId, status);
+            eventBus.publish("status", propertyId, status);
+        }
+
+        @Override
+        public void receivePropertyStatusUpdates(Map<String, String> updates) {
+            statuses.putAll(updates);
+        }
+
+        @Override
+        public boolean isRegisteredProperty(String propertyId) {
+            return statuses.containsKey(propertyId);
+        }
+
+        @Override
+        public Set<String> getRegisteredPropertyIds() {
+            return Set.copyOf(statuses.keySet());
+        }
+
+        @Override
+        public int getRegisteredPropertyCount() {
+            return statuses.size();
+        }
+
+        @Override
+        public Iterator<String> registeredPropertyIdsAfter(String cursor) {
+            return (cursor == null ? statuses : statuses.tailMap(cursor, false)).keySet().iterator();
+        }
+
+        @Override
+        public long getPropertyListVersion() {
+            return version.get();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+import me.samarthh.api.CircuitBreaker;
+import me.samarthh.api.ConcurrencyLimiter;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class CircuitBreakerTest {
+
+    @Test
+    public void testBreakerOpensAndProbesAfterTimeout() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("property request", 3, 30);
+        for (int i = 0; i < 3; i++) {
+            long started = System.nanoTime();
+            assertTrue(breaker.tryAcquire());
+            breaker.onFailure(started);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+
+        Thread.sleep(50);
+        // Exactly one probe is let through while half-open
+        long probe = System.nanoTime();
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        breaker.onFailure(probe);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        Thread.sleep(50);
+        probe = System.nanoTime();
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess(probe);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    public void testLateOutcomesDoNotBypassTheProbe() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("property request", 1, 30);
+        long slow = System.nanoTime();
+        assertTrue(breaker.tryAcquire());
+        long failing = System.nanoTime();
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure(failing);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        // A call sent before the breaker opened succeeds late: the breaker stays open
+        breaker.onSuccess(slow);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+
+        Thread.sleep(50);
+        long probe = System.nanoTime();
+        assertTrue(breaker.tryAcquire());
+        // Stale outcomes neither close the breaker nor free the probe slot
+        breaker.onSuccess(slow);
+        breaker.onIgnored(slow);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+
+        breaker.onSuccess(probe);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testLimiterBacksOffOnFailureAndSlowCalls() {
+        AtomicInteger published = new AtomicInteger(16);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 16, 2.0, published::set);
+
+        limiter.onSample(1_000_000, true, 15);
+        assertEquals(14, limiter.getLimit());
+        assertEquals(14, published.get());
+
+        for (int i = 0; i < 20; i++) {
+            limiter.onSample(1_000_000, false, 15);
+        }
+        int healthy = limiter.getLimit();
+        // A sustained latency jump shrinks the limit even without errors
+        for (int i = 0; i < 20; i++) {
+            limiter.onSample(10_000_000, false, healthy);
+        }
+        assertTrue(limiter.getLimit() < healthy);
+        assertEquals(limiter.getLimit(), published.get());
+    }
+}
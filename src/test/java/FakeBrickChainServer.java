@@ -0,0 +1,286 @@
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process stand-in for the BrickChain backend with latency and fault injection.
+ * Serves the endpoints SioseApiClient uses under /v1 on a loopback port.
+ * Run main() to start it standalone and point api.base-url at it.
+ */
+public class FakeBrickChainServer implements AutoCloseable {
+
+    private final Gson gson = new Gson();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, LongAdder> requestCounts = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private volatile Latency latency = Latency.none();
+    private volatile double errorRate;
+    private volatile int dripChunkBytes;
+    private volatile long dripDelayMillis;
+
+    public FakeBrickChainServer() throws IOException {
+        this(0);
+    }
+
+    /**
+     * @param port Port to listen on, 0 for any free port
+     */
+    public FakeBrickChainServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        // Injected latency blocks a handler thread, so the pool has to grow with the load
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "FakeBrickChain");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+
+        route("POST", "/v1/register", (exchange, body) -> {
+            JsonObject json = new JsonObject();
+            json.addProperty("success", true);
+            json.addProperty("message", "Registration started");
+            json.addProperty("registrationUrl", "http://localhost/register?code=" + UUID.randomUUID());
+            json.addProperty("registrationCode", Integer.toString(ThreadLocalRandom.current().nextInt(100000, 999999)));
+            return json;
+        });
+        route("POST", "/v1/auth/minecraft/login", (exchange, body) -> {
+            JsonObject request = gson.fromJson(body, JsonObject.class);
+            JsonObject player = request.getAsJsonObject("minecraftPlayerData");
+            JsonObject json = new JsonObject();
+            json.addProperty("success", true);
+            json.addProperty("message", "Logged in");
+            json.add("user", user(player.get("id").getAsString(), player.get("name").getAsString()));
+            return json;
+        });
+        route("GET", "/v1/user/@me", (exchange, body) -> {
+            String token = exchange.getRequestHeaders().getFirst("x-minecraft-token");
+            JsonObject json = new JsonObject();
+            json.addProperty("success", true);
+            json.add("user", user(UUID.nameUUIDFromBytes(token.getBytes(StandardCharsets.UTF_8)).toString(), "player"));
+            return json;
+        });
+        route("GET", "/v1/user/property-requests/eligibility", (exchange, body) -> {
+            JsonObject json = new JsonObject();
+            json.addProperty("eligible", true);
+            json.addProperty("message", "Eligible");
+            return json;
+        });
+        route("POST", "/v1/user/property-requests/status", (exchange, body) -> {
+            JsonObject json = new JsonObject();
+            json.addProperty("status", "PENDING");
+            json.addProperty("propertyId", UUID.randomUUID().toString());
+            json.addProperty("message", "Property is pending review");
+            return json;
+        });
+        route("POST", "/v1/user/property-requests", (exchange, body) -> {
+            JsonObject request = new JsonObject();
+            request.addProperty("id", UUID.randomUUID().toString());
+            request.addProperty("status", "PENDING");
+            request.addProperty("description", gson.fromJson(body, JsonObject.class).get("entity").getAsString());
+            JsonObject json = new JsonObject();
+            json.addProperty("message", "Property request submitted successfully");
+            json.add("request", request);
+            return json;
+        });
+    }
+
+    public static void main(String[] args) throws Exception {
+        FakeBrickChainServer server = new FakeBrickChainServer(args.length > 0 ? Integer.parseInt(args[0]) : 3000);
+        if (args.length > 1) {
+            server.setLatency(Latency.uniform(0, Long.parseLong(args[1])));
+        }
+        if (args.length > 2) {
+            server.setErrorRate(Double.parseDouble(args[2]));
+        }
+        server.start();
+        System.out.println("Fake BrickChain listening on " + server.getBaseUrl());
+        Thread.currentThread().join();
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * API root to hand to SioseApiClient, including /v1
+     */
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1";
+    }
+
+    /**
+     * Delay applied before every response
+     */
+    public void setLatency(Latency latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * Fraction of requests (0..1) answered with 503 instead of a result
+     */
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * Send response bodies in chunks of chunkBytes with delayMillis between them (0 disables)
+     */
+    public void setSlowDrip(int chunkBytes, long delayMillis) {
+        this.dripChunkBytes = chunkBytes;
+        this.dripDelayMillis = delayMillis;
+    }
+
+    public long getRequestCount(String path) {
+        LongAdder count = requestCounts.get(path);
+        return count == null ? 0 : count.sum();
+    }
+
+    public long getTotalRequests() {
+        return requestCounts.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    /**
+     * Highest number of requests handled at the same time
+     */
+    public int getMaxInFlight() {
+        return maxInFlight.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void route(String method, String path, Handler handler) {
+        server.createContext(path, exchange -> {
+            try (exchange) {
+                // Contexts match by prefix; /v1/user/property-requests must not answer its sub-paths
+                if (!exchange.getRequestURI().getPath().equals(path)) {
+                    send(exchange, 404, error("Not found"));
+                    return;
+                }
+                if (!exchange.getRequestMethod().equalsIgnoreCase(method)) {
+                    send(exchange, 405, error("Method not allowed"));
+                    return;
+                }
+                requestCounts.computeIfAbsent(path, key -> new LongAdder()).increment();
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    String body = readBody(exchange.getRequestBody());
+                    sleep(latency.nextMillis());
+                    if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                        send(exchange, 503, error("Injected failure"));
+                    } else if (path.startsWith("/v1/user/") && exchange.getRequestHeaders().getFirst("x-minecraft-token") == null) {
+                        send(exchange, 401, error("Missing token"));
+                    } else {
+                        send(exchange, 200, handler.handle(exchange, body));
+                    }
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                // Malformed request bodies end up here; the exchange is already closed
+            }
+        });
+    }
+
+    private void send(HttpExchange exchange, int code, JsonObject json) throws IOException, InterruptedException {
+        byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        int chunk = dripChunkBytes;
+        if (chunk <= 0) {
+            exchange.sendResponseHeaders(code, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            return;
+        }
+        // Chunked transfer so the client sees the body trickle in
+        exchange.sendResponseHeaders(code, 0);
+        OutputStream out = exchange.getResponseBody();
+        for (int offset = 0; offset < bytes.length; offset += chunk) {
+            out.write(bytes, offset, Math.min(chunk, bytes.length - offset));
+            out.flush();
+            sleep(dripDelayMillis);
+        }
+    }
+
+    private JsonObject user(String uuid, String username) {
+        JsonObject user = new JsonObject();
+        user.addProperty("uuid", uuid);
+        user.addProperty("username", username);
+        user.addProperty("email", username + "@example.com");
+        user.addProperty("createdAt", "2024-01-01T00:00:00Z");
+        user.addProperty("role", "USER");
+        return user;
+    }
+
+    private static JsonObject error(String message) {
+        JsonObject json = new JsonObject();
+        json.addProperty("success", false);
+        json.addProperty("message", message);
+        return json;
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private static void sleep(long millis) throws InterruptedException {
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        JsonObject handle(HttpExchange exchange, String body);
+    }
+
+    /**
+     * Distribution the per-request delay is drawn from
+     */
+    @FunctionalInterface
+    public interface Latency {
+        long nextMillis();
+
+        static Latency none() {
+            return () -> 0;
+        }
+
+        static Latency fixed(long millis) {
+            return () -> millis;
+        }
+
+        static Latency uniform(long minMillis, long maxMillis) {
+            return () -> ThreadLocalRandom.current().nextLong(minMillis, maxMillis + 1);
+        }
+
+        /**
+         * Long-tailed delay: median around medianMillis, spread controlled by sigma (0.5 is moderate, 1.0 is heavy)
+         */
+        static Latency logNormal(long medianMillis, double sigma) {
+            return () -> Math.round(medianMillis * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+        }
+    }
+}
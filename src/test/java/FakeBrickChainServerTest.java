@@ -0,0 +1,128 @@
+import me.samarthh.api.ApiExecutor;
+import me.samarthh.api.SioseApiClient;
+import me.samarthh.api.SioseApiClient.AuthResponse;
+import me.samarthh.api.SioseApiClient.PropertyRequestResponse;
+import me.samarthh.api.SioseApiClient.UserData;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class FakeBrickChainServerTest {
+
+    private FakeBrickChainServer server;
+    private SioseApiClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new FakeBrickChainServer();
+        server.start();
+        client = new SioseApiClient(server.getBaseUrl(), ApiExecutor.bounded(16, 256));
+    }
+
+    @After
+    public void tearDown() {
+        client.shutdown();
+        server.close();
+    }
+
+    @Test
+    public void testClientRoundTrip() throws Exception {
+        String uuid = UUID.randomUUID().toString();
+        AuthResponse auth = client.login(uuid, "Notch", "token").get(5, TimeUnit.SECONDS);
+        assertTrue(auth.isValid());
+        assertEquals(uuid, auth.getUser().getUuid());
+
+        UserData user = client.fetchData("token").get(5, TimeUnit.SECONDS);
+        assertNotNull(user.getUuid());
+        assertTrue(client.checkEligibility("token").get(5, TimeUnit.SECONDS).isEligible());
+
+        PropertyRequestResponse response = client.requestProperty("token", "{\"area\": 1}").get(5, TimeUnit.SECONDS);
+        assertTrue(response.isSuccess());
+        assertNotNull(response.getPropertyId());
+        assertEquals(1, server.getRequestCount("/v1/user/property-requests"));
+    }
+
+    @Test
+    public void testConcurrentCallersCannotOverfillQueue() throws Exception {
+        server.setLatency(FakeBrickChainServer.Latency.fixed(300));
+        SioseApiClient small = new SioseApiClient(server.getBaseUrl(), ApiExecutor.bounded(1, 4));
+        try {
+            int callers = 32;
+            CountDownLatch start = new CountDownLatch(1);
+            List<CompletableFuture<AuthResponse>> calls = new CopyOnWriteArrayList<>();
+            ExecutorService pool = Executors.newFixedThreadPool(callers);
+            for (int i = 0; i < callers; i++) {
+                pool.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    calls.add(small.login(UUID.randomUUID().toString(), "Notch", "token"));
+                });
+            }
+            start.countDown();
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+
+            // One running call plus a full queue; everything else is rejected up front
+            int accepted = 0;
+            for (CompletableFuture<AuthResponse> call : calls) {
+                try {
+                    call.get(10, TimeUnit.SECONDS);
+                    accepted++;
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof SioseApiClient.SaturatedException);
+                }
+            }
+            assertEquals(5, accepted);
+        } finally {
+            small.shutdown();
+        }
+    }
+
+    @Test
+    public void testInjectedErrorsSurfaceAsFailedRequests() throws Exception {
+        server.setErrorRate(1.0);
+
+        PropertyRequestResponse response = client.requestProperty("token", "{}").get(5, TimeUnit.SECONDS);
+        assertFalse(response.isSuccess());
+        assertTrue(response.getMessage().contains("503"));
+    }
+
+    @Test
+    public void testSlowDripResponseIsReadCompletely() throws Exception {
+        server.setSlowDrip(8, 5);
+
+        AuthResponse auth = client.login(UUID.randomUUID().toString(), "Notch", "token").get(10, TimeUnit.SECONDS);
+        assertTrue(auth.isValid());
+        assertEquals("Notch", auth.getUser().getUsername());
+    }
+
+    @Test
+    public void testLoadDriverUnderLatencyAndFaults() throws Exception {
+        server.setLatency(FakeBrickChainServer.Latency.logNormal(5, 0.5));
+        server.setErrorRate(0.05);
+
+        LoadDriver.Report report = new LoadDriver(client, 50, 4).run(60, TimeUnit.SECONDS);
+
+        assertEquals(50 * 4 * 4, report.getSucceeded() + report.getFailed() + report.getRejected());
+        assertEquals(0, report.getRejected());
+        assertTrue(report.getFailed() > 0);
+        assertTrue(report.getSucceeded() > report.getFailed());
+        // The client never runs more calls at once than its executor allows
+        assertTrue(server.getMaxInFlight() <= 16);
+    }
+}
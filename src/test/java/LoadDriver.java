@@ -0,0 +1,141 @@
+import me.samarthh.api.PropertyEntity;
+import me.samarthh.api.SioseApiClient;
+import me.samarthh.api.SioseApiClient.SaturatedException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Simulates concurrent players going through the client the way the plugin does:
+ * login, fetch profile data, check eligibility, then request a property.
+ * Each player keeps one call in flight at a time; players run concurrently.
+ */
+public class LoadDriver {
+
+    private final SioseApiClient client;
+    private final int players;
+    private final int iterations;
+
+    public LoadDriver(SioseApiClient client, int players, int iterations) {
+        this.client = client;
+        this.players = players;
+        this.iterations = iterations;
+    }
+
+    public Report run(long timeout, TimeUnit unit) throws Exception {
+        Report report = new Report();
+        long start = System.nanoTime();
+        CompletableFuture<?>[] sessions = new CompletableFuture<?>[players];
+        for (int i = 0; i < players; i++) {
+            sessions[i] = player(report, UUID.randomUUID(), "player" + i, 0);
+        }
+        CompletableFuture.allOf(sessions).get(timeout, unit);
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    private CompletableFuture<Void> player(Report report, UUID uuid, String name, int iteration) {
+        if (iteration >= iterations) {
+            return CompletableFuture.completedFuture(null);
+        }
+        String token = "token-" + uuid;
+        int x = iteration * 32;
+        String entity = PropertyEntity.toJson(x, 64, 0, x + 10, 64, 0, x, 64, 10,
+                PropertyEntity.area(x, 64, 0, x + 10, 64, 0, x, 64, 10));
+        return timed(report, "login", () -> client.login(uuid.toString(), name, token))
+                .thenCompose(ignored -> timed(report, "fetchData", () -> client.fetchData(token)))
+                .thenCompose(ignored -> timed(report, "checkEligibility", () -> client.checkEligibility(token)))
+                .thenCompose(ignored -> timed(report, "requestProperty", () -> client.requestProperty(token, entity)
+                        .thenApply(response -> {
+                            // requestProperty reports failures in the response instead of failing the future
+                            if (!response.isSuccess()) {
+                                throw new CompletionException(new SioseApiClient.ApiException(response.getMessage()));
+                            }
+                            return response;
+                        })))
+                .thenCompose(ignored -> player(report, uuid, name, iteration + 1));
+    }
+
+    /**
+     * Records the latency and outcome of one call; failures are counted, not propagated, so the player carries on
+     */
+    private <T> CompletableFuture<Object> timed(Report report, String operation, Supplier<CompletableFuture<T>> call) {
+        long start = System.nanoTime();
+        return call.get().handle((result, throwable) -> {
+            report.record(operation, System.nanoTime() - start, throwable);
+            return null;
+        });
+    }
+
+    public static class Report {
+        private final Map<String, List<Long>> latencies = new LinkedHashMap<>();
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private volatile long elapsedNanos;
+
+        private void record(String operation, long nanos, Throwable throwable) {
+            if (throwable == null) {
+                succeeded.increment();
+                synchronized (latencies) {
+                    latencies.computeIfAbsent(operation, key -> new ArrayList<>()).add(nanos);
+                }
+            } else if (throwable.getCause() instanceof SaturatedException || throwable instanceof SaturatedException) {
+                rejected.increment();
+            } else {
+                failed.increment();
+            }
+        }
+
+        public long getSucceeded() { return succeeded.sum(); }
+
+        public long getFailed() { return failed.sum(); }
+
+        public long getRejected() { return rejected.sum(); }
+
+        public double getThroughput() {
+            return (getSucceeded() + getFailed() + getRejected()) / (elapsedNanos / 1e9);
+        }
+
+        /**
+         * Latency percentile of successful calls in milliseconds, e.g. percentile("login", 0.99)
+         */
+        public double percentile(String operation, double quantile) {
+            long[] sorted;
+            synchronized (latencies) {
+                List<Long> values = latencies.getOrDefault(operation, List.of());
+                sorted = values.stream().mapToLong(Long::longValue).toArray();
+            }
+            if (sorted.length == 0) {
+                return Double.NaN;
+            }
+            Arrays.sort(sorted);
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+            return sorted[Math.max(index, 0)] / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder(String.format("%d ok, %d failed, %d rejected in %.1fs (%.0f calls/s)%n",
+                    getSucceeded(), getFailed(), getRejected(), elapsedNanos / 1e9, getThroughput()));
+            List<String> operations;
+            synchronized (latencies) {
+                operations = new ArrayList<>(latencies.keySet());
+            }
+            for (String operation : operations) {
+                builder.append(String.format("  %-17s p50 %7.1fms  p99 %7.1fms%n",
+                        operation, percentile(operation, 0.5), percentile(operation, 0.99)));
+            }
+            return builder.toString();
+        }
+    }
+}
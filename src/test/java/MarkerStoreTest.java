@@ -0,0 +1,154 @@
+import me.samarthh.protection.PropertyRegionIndex;
+import me.samarthh.protection.PropertyRegionIndex.Region;
+import me.samarthh.protection.ProtectedBlockIndex;
+import me.samarthh.storage.BlockPosition;
+import me.samarthh.storage.MarkerStore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class MarkerStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testJournalReplay() throws Exception {
+        Path dataFolder = folder.getRoot().toPath();
+
+        ProtectedBlockIndex blocks = new ProtectedBlockIndex();
+        MarkerStore store = new MarkerStore(dataFolder);
+        assertTrue(store.load(blocks).isEmpty());
+        blocks.setChangeListener(store);
+
+        blocks.add("world", 1, 64, 1);
+        blocks.add("world", -20, 70, 300);
+        blocks.remove("world", 1, 64, 1);
+        store.propertyPut("property-1", new BlockPosition("world", -20, 71, 300));
+        store.propertyPut("property-2", new BlockPosition("world", 5, 5, 5));
+        store.propertyRemoved("property-2");
+        store.close();
+
+        ProtectedBlockIndex reloaded = new ProtectedBlockIndex();
+        MarkerStore reopened = new MarkerStore(dataFolder);
+        Map<String, BlockPosition> properties = reopened.load(reloaded);
+        reopened.close();
+
+        assertEquals(1, reloaded.size());
+        assertTrue(reloaded.contains("world", -20, 70, 300));
+        assertFalse(reloaded.contains("world", 1, 64, 1));
+        assertEquals(Map.of("property-1", new BlockPosition("world", -20, 71, 300)), properties);
+    }
+
+    @Test
+    public void testTornTailIsDiscarded() throws Exception {
+        Path dataFolder = folder.getRoot().toPath();
+
+        ProtectedBlockIndex blocks = new ProtectedBlockIndex();
+        MarkerStore store = new MarkerStore(dataFolder);
+        store.load(blocks);
+        blocks.setChangeListener(store);
+        blocks.add("world", 1, 2, 3);
+        store.close();
+
+        Path journal = dataFolder.resolve("markers.journal");
+        Files.write(journal, new byte[]{0, 0, 0, 40, 1, 0}, StandardOpenOption.APPEND);
+
+        ProtectedBlockIndex reloaded = new ProtectedBlockIndex();
+        MarkerStore reopened = new MarkerStore(dataFolder);
+        reopened.load(reloaded);
+        reopened.close();
+
+        assertTrue(reloaded.contains("world", 1, 2, 3));
+        assertEquals(1, reloaded.size());
+    }
+
+    @Test
+    public void testCompactionTruncatesJournal() throws Exception {
+        Path dataFolder = folder.getRoot().toPath();
+
+        ProtectedBlockIndex blocks = new ProtectedBlockIndex();
+        MarkerStore store = new MarkerStore(dataFolder);
+        store.load(blocks);
+        blocks.setChangeListener(store);
+        for (int i = 0; i < 1000; i++) {
+            blocks.add("world", i, 64, -i);
+        }
+        store.compact(blocks.snapshot(), Map.of("property-1", new BlockPosition("world", 0, 65, 0)), List.of());
+        blocks.add("world_nether", 8, 8, 8);
+        store.close();
+
+        assertTrue(Files.size(dataFolder.resolve("markers.journal")) < 100);
+
+        ProtectedBlockIndex reloaded = new ProtectedBlockIndex();
+        MarkerStore reopened = new MarkerStore(dataFolder);
+        Map<String, BlockPosition> properties = reopened.load(reloaded);
+        reopened.close();
+
+        assertEquals(1001, reloaded.size());
+        assertTrue(reloaded.contains("world", 999, 64, -999));
+        assertTrue(reloaded.contains("world_nether", 8, 8, 8));
+        assertEquals(1, properties.size());
+    }
+
+    @Test
+    public void testRegionsSurviveJournalAndCompaction() throws Exception {
+        Path dataFolder = folder.getRoot().toPath();
+
+        ProtectedBlockIndex blocks = new ProtectedBlockIndex();
+        PropertyRegionIndex regions = new PropertyRegionIndex();
+        MarkerStore store = new MarkerStore(dataFolder);
+        store.load(blocks, regions);
+        regions.setChangeListener(store);
+        regions.put(new Region("request-1", "world", 0, 0, 20, 10));
+        regions.put(new Region("property-2", "world", 100, 100, 120, 140));
+        store.compact(blocks.snapshot(), Map.of(), regions.snapshot());
+        // Journaled after the snapshot
+        regions.rename("request-1", "property-1");
+        regions.remove("property-2");
+        store.close();
+
+        PropertyRegionIndex reloaded = new PropertyRegionIndex();
+        MarkerStore reopened = new MarkerStore(dataFolder);
+        reopened.load(new ProtectedBlockIndex(), reloaded);
+        reopened.close();
+
+        assertEquals(1, reloaded.size());
+        assertEquals(new Region("property-1", "world", 0, 0, 20, 10), reloaded.regionAt("world", 5, 5));
+        assertNull(reloaded.regionAt("world", 110, 110));
+    }
+
+    @Test
+    public void testLegacyTextFilesAreMigrated() throws Exception {
+        Path dataFolder = folder.getRoot().toPath();
+        Files.writeString(dataFolder.resolve("unbreakable_blocks.txt"), "world,1,64,2\nworld,-3,70,4\n\nbad,line\n");
+        Files.writeString(dataFolder.resolve("property_ids.txt"), "property-1,world,1,65,2\n");
+
+        ProtectedBlockIndex blocks = new ProtectedBlockIndex();
+        MarkerStore store = new MarkerStore(dataFolder);
+        Map<String, BlockPosition> properties = store.load(blocks);
+        store.close();
+
+        assertEquals(2, blocks.size());
+        assertEquals(Map.of("property-1", new BlockPosition("world", 1, 65, 2)), properties);
+        assertTrue(Files.exists(dataFolder.resolve("markers.dat")));
+        assertFalse(Files.exists(dataFolder.resolve("unbreakable_blocks.txt")));
+        assertTrue(Files.exists(dataFolder.resolve("unbreakable_blocks.txt.migrated")));
+
+        ProtectedBlockIndex reloaded = new ProtectedBlockIndex();
+        MarkerStore reopened = new MarkerStore(dataFolder);
+        assertEquals(properties, reopened.load(reloaded));
+        reopened.close();
+
+        assertTrue(reloaded.contains("world", -3, 70, 4));
+        assertEquals(2, reloaded.size());
+    }
+}
@@ -0,0 +1,49 @@
+import me.samarthh.metrics.Histogram;
+import me.samarthh.metrics.Metrics;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MetricsTest {
+
+    @After
+    public void tearDown() {
+        Metrics.clear();
+    }
+
+    @Test
+    public void testCountersAndGaugesAreExported() {
+        Metrics.counter("test_requests_total", "Requests", "route", "/api/property/status").add(3);
+        Metrics.counter("test_requests_total", "Requests", "route", "/api/property/status").inc();
+        Metrics.gauge("test_queue_depth", "Queue depth", () -> 7);
+
+        String text = Metrics.scrape();
+        assertTrue(text.contains("# TYPE test_requests_total counter\n"));
+        assertTrue(text.contains("test_requests_total{route=\"/api/property/status\"} 4\n"));
+        assertTrue(text.contains("# TYPE test_queue_depth gauge\n"));
+        assertTrue(text.contains("test_queue_depth 7\n"));
+    }
+
+    @Test
+    public void testHistogramBucketsAreCumulative() {
+        Histogram histogram = Metrics.histogram("test_duration_seconds", "Latency", "handler", "onBlockBreak");
+        histogram.observeNanos(20_000);          // 20 us
+        histogram.observeNanos(3_000_000);       // 3 ms
+        histogram.observeNanos(60_000_000_000L); // 60 s, above every bound
+
+        String text = Metrics.scrape();
+        assertTrue(text.contains("test_duration_seconds_bucket{handler=\"onBlockBreak\",le=\"2.5E-5\"} 1\n"));
+        assertTrue(text.contains("test_duration_seconds_bucket{handler=\"onBlockBreak\",le=\"0.005\"} 2\n"));
+        assertTrue(text.contains("test_duration_seconds_bucket{handler=\"onBlockBreak\",le=\"30.0\"} 2\n"));
+        assertTrue(text.contains("test_duration_seconds_bucket{handler=\"onBlockBreak\",le=\"+Inf\"} 3\n"));
+        assertTrue(text.contains("test_duration_seconds_count{handler=\"onBlockBreak\"} 3\n"));
+        assertEquals(3, histogram.getCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNameCannotChangeType() {
+        Metrics.counter("test_mixed", "Mixed");
+        Metrics.histogram("test_mixed", "Mixed");
+    }
+}
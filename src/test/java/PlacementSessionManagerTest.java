@@ -0,0 +1,69 @@
+import me.samarthh.managers.PlacementSessionManager;
+import me.samarthh.managers.PlacementSessionManager.PlacementSession;
+import me.samarthh.protection.BlockKeys;
+import me.samarthh.protection.ProtectedBlockIndex;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class PlacementSessionManagerTest {
+
+    @Test
+    public void testCornersAreProtectedAndKeptOnCompletion() {
+        ProtectedBlockIndex blocks = new ProtectedBlockIndex();
+        PlacementSessionManager sessions = new PlacementSessionManager(blocks, 60_000);
+        UUID player = UUID.randomUUID();
+
+        sessions.addCorner(player, "world", 0, 64, 0);
+        sessions.addCorner(player, "world", 10, 64, 0);
+        PlacementSession session = sessions.addCorner(player, "world", 0, 64, -20);
+
+        assertEquals(3, session.corners());
+        assertEquals(BlockKeys.pack(10, 64, 0), session.second());
+        assertTrue(blocks.contains("world", 0, 64, -20));
+
+        sessions.complete(player);
+        assertNull(sessions.get(player));
+        assertEquals(3, blocks.size());
+    }
+
+    @Test
+    public void testExpiryReleasesCorners() {
+        ProtectedBlockIndex blocks = new ProtectedBlockIndex();
+        PlacementSessionManager sessions = new PlacementSessionManager(blocks, 60_000);
+        UUID leaving = UUID.randomUUID();
+        UUID idle = UUID.randomUUID();
+        blocks.add("world", 100, 64, 100); // part of an earlier property
+
+        sessions.addCorner(leaving, "world", 0, 64, 0);
+        sessions.addCorner(leaving, "world", 5, 64, 0);
+        sessions.addCorner(idle, "world", 50, 64, 50);
+
+        assertTrue(sessions.expire(leaving));
+        assertFalse(sessions.expire(leaving));
+        assertFalse(blocks.contains("world", 5, 64, 0));
+
+        assertEquals(0, sessions.expireIdle(System.currentTimeMillis()));
+        assertEquals(1, sessions.expireIdle(System.currentTimeMillis() + 120_000));
+        assertEquals(0, sessions.size());
+        assertEquals(1, blocks.size());
+        assertTrue(blocks.contains("world", 100, 64, 100));
+    }
+
+    @Test
+    public void testCornerInAnotherWorldStartsOver() {
+        ProtectedBlockIndex blocks = new ProtectedBlockIndex();
+        PlacementSessionManager sessions = new PlacementSessionManager(blocks, 60_000);
+        UUID player = UUID.randomUUID();
+
+        sessions.addCorner(player, "world", 0, 64, 0);
+        PlacementSession session = sessions.addCorner(player, "world_nether", 1, 64, 1);
+
+        assertEquals(1, session.corners());
+        assertEquals("world_nether", session.world());
+        assertFalse(blocks.contains("world", 0, 64, 0));
+        assertEquals(1, blocks.size());
+    }
+}
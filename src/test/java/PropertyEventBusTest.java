@@ -0,0 +1,106 @@
+import me.samarthh.api.PropertyEventBus;
+import me.samarthh.api.PropertyEventBus.Event;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class PropertyEventBusTest {
+
+    @Test
+    public void testSlowSubscriberLosesOldestEvents() throws Exception {
+        PropertyEventBus bus = new PropertyEventBus(3, 16, 4);
+        PropertyEventBus.Subscription subscription = bus.subscribe(-1);
+        for (int i = 1; i <= 5; i++) {
+            bus.publish("status", "prop-" + i, "approved");
+        }
+
+        List<Event> events = subscription.poll(0, TimeUnit.MILLISECONDS);
+        assertEquals(List.of(3L, 4L, 5L), events.stream().map(Event::id).toList());
+        assertEquals(2, subscription.takeDropped());
+        assertEquals(0, subscription.takeDropped());
+    }
+
+    @Test
+    public void testResumeReplaysHistoryAndReportsGap() throws Exception {
+        PropertyEventBus bus = new PropertyEventBus(16, 3, 4);
+        for (int i = 1; i <= 5; i++) {
+            bus.publish("registered", "prop-" + i, null);
+        }
+
+        PropertyEventBus.Subscription recent = bus.subscribe(3);
+        assertEquals(List.of(4L, 5L), recent.poll(0, TimeUnit.MILLISECONDS).stream().map(Event::id).toList());
+        assertEquals(0, recent.takeDropped());
+
+        // Event 2 is no longer in the history
+        PropertyEventBus.Subscription late = bus.subscribe(1);
+        assertEquals(List.of(3L, 4L, 5L), late.poll(0, TimeUnit.MILLISECONDS).stream().map(Event::id).toList());
+        assertEquals(1, late.takeDropped());
+    }
+
+    @Test
+    public void testResumeAcrossRestartReplaysEverythingAndFlagsReset() throws Exception {
+        PropertyEventBus before = new PropertyEventBus(16, 16, 4);
+        for (int i = 1; i <= 5; i++) {
+            before.publish("registered", "prop-" + i, null);
+        }
+        PropertyEventBus.Subscription resumed = before.subscribe(before.idOf(new Event(3, "registered", "prop-3", null, 0)));
+        assertEquals(List.of(4L, 5L), resumed.poll(0, TimeUnit.MILLISECONDS).stream().map(Event::id).toList());
+        assertFalse(resumed.takeRestarted());
+
+        // A new start numbers its events from 1 again; a client at event 3 of the last start must reload
+        PropertyEventBus after = new PropertyEventBus(16, 16, 4);
+        after.publish("registered", "prop-6", null);
+        for (String lastEventId : new String[]{before.idOf(new Event(3, "registered", "prop-3", null, 0)), "3", "garbage"}) {
+            PropertyEventBus.Subscription subscription = after.subscribe(lastEventId);
+            assertTrue(subscription.takeRestarted());
+            assertFalse(subscription.takeRestarted());
+            assertEquals(List.of(1L), subscription.poll(0, TimeUnit.MILLISECONDS).stream().map(Event::id).toList());
+            subscription.close();
+        }
+    }
+
+    @Test
+    public void testSubscribeDuringPublishSeesEveryEventOnce() throws Exception {
+        PropertyEventBus bus = new PropertyEventBus(1 << 16, 16, 4);
+        AtomicBoolean publishing = new AtomicBoolean(true);
+        Thread publisher = new Thread(() -> {
+            while (publishing.get()) {
+                bus.publish("status", "prop", "approved");
+            }
+        });
+        publisher.start();
+        try {
+            // Resume from the start of the history while events are being published, again and again
+            for (int i = 0; i < 20_000; i++) {
+                PropertyEventBus.Subscription subscription = bus.subscribe(0);
+                List<Event> events = new ArrayList<>(subscription.poll(0, TimeUnit.MILLISECONDS));
+                events.addAll(subscription.poll(0, TimeUnit.MILLISECONDS));
+                subscription.close();
+                for (int j = 1; j < events.size(); j++) {
+                    assertEquals("events must follow each other without repeats",
+                            events.get(j - 1).id() + 1, events.get(j).id());
+                }
+            }
+        } finally {
+            publishing.set(false);
+            publisher.join();
+        }
+    }
+
+    @Test
+    public void testCloseEndsPollAndFreesSlot() throws Exception {
+        PropertyEventBus bus = new PropertyEventBus(4, 4, 1);
+        PropertyEventBus.Subscription subscription = bus.subscribe(-1);
+        assertNull(bus.subscribe(-1));
+
+        bus.closeAll();
+        assertNull(subscription.poll(1, TimeUnit.SECONDS));
+        assertEquals(0, bus.getSubscriberCount());
+        assertNotNull(bus.subscribe(-1));
+    }
+}
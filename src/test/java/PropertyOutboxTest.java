@@ -0,0 +1,131 @@
+import me.samarthh.api.ApiExecutor;
+import me.samarthh.api.PropertyOutbox;
+import me.samarthh.api.SioseApiClient;
+import me.samarthh.api.SioseApiClient.PropertyRequestResponse;
+import me.samarthh.storage.BlockPosition;
+import me.samarthh.storage.OutboxEntry;
+import me.samarthh.storage.OutboxStore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class PropertyOutboxTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FakeBrickChainServer server;
+    private SioseApiClient client;
+    private Path directory;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new FakeBrickChainServer();
+        server.start();
+        client = new SioseApiClient(server.getBaseUrl(), ApiExecutor.bounded(4, 64), 16, 0, 0, 3, 50);
+        directory = folder.getRoot().toPath().resolve("outbox");
+    }
+
+    @After
+    public void tearDown() {
+        client.shutdown();
+        server.close();
+    }
+
+    @Test
+    public void testRequestsSurviveOutageAndRestart() throws Exception {
+        server.setErrorRate(1.0);
+        Recorder failing = new Recorder(5);
+        PropertyOutbox outbox = new PropertyOutbox(new OutboxStore(directory), client, failing, 4, 10, 50);
+        outbox.start();
+        for (int i = 0; i < 5; i++) {
+            outbox.submit(OutboxEntry.create(UUID.randomUUID(), "token", "{\"area\": " + i + "}",
+                    new BlockPosition("world", i, 65, 0), List.of(new BlockPosition("world", i, 64, 0)))).get(5, TimeUnit.SECONDS);
+        }
+
+        // Every entry is attempted and retried, but none is dropped while the backend fails
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!allRetried(2) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        outbox.stop();
+        assertTrue(allRetried(2));
+        assertEquals(0, failing.delivered.size());
+        List<OutboxEntry> stored = new OutboxStore(directory).loadAll();
+        assertEquals(5, stored.size());
+        // Corners are kept so a rejection can release them, even after a restart
+        for (OutboxEntry entry : stored) {
+            assertEquals(List.of(new BlockPosition("world", entry.sign().x(), 64, 0)), entry.corners());
+        }
+
+        // After a restart the stored entries are delivered once the backend recovers
+        server.setErrorRate(0);
+        Recorder recovered = new Recorder(5);
+        PropertyOutbox restarted = new PropertyOutbox(new OutboxStore(directory), client, recovered, 4, 10, 50);
+        restarted.start();
+        assertTrue(recovered.done.await(5, TimeUnit.SECONDS));
+        restarted.stop();
+
+        assertEquals(5, recovered.delivered.size());
+        assertEquals(0, restarted.getPendingCount());
+        assertTrue(new OutboxStore(directory).loadAll().isEmpty());
+    }
+
+    @Test
+    public void testStopDoesNotWaitForSlowBackend() throws Exception {
+        server.setLatency(FakeBrickChainServer.Latency.fixed(3000));
+        PropertyOutbox outbox = new PropertyOutbox(new OutboxStore(directory), client, new Recorder(1), 4, 10, 50);
+        outbox.start();
+        OutboxEntry entry = OutboxEntry.create(UUID.randomUUID(), "token", "{\"area\": 1}",
+                new BlockPosition("world", 0, 65, 0), List.of(new BlockPosition("world", 0, 64, 0)));
+        outbox.submit(entry).get(5, TimeUnit.SECONDS);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (server.getTotalRequests() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // The request is still waiting for its response; stopping leaves it on disk for the next start
+        long start = System.nanoTime();
+        outbox.stop();
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        assertEquals(List.of(entry.id()), new OutboxStore(directory).loadAll().stream().map(OutboxEntry::id).toList());
+    }
+
+    private boolean allRetried(int attempts) throws Exception {
+        List<OutboxEntry> entries = new OutboxStore(directory).loadAll();
+        return entries.size() == 5 && entries.stream().allMatch(entry -> entry.attempts() >= attempts);
+    }
+
+    private static class Recorder implements PropertyOutbox.DeliveryListener {
+        final Set<String> delivered = ConcurrentHashMap.newKeySet();
+        final CountDownLatch done;
+
+        Recorder(int expected) {
+            done = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void delivered(OutboxEntry entry, PropertyRequestResponse response) {
+            assertNotNull(response.getPropertyId());
+            delivered.add(entry.id());
+            done.countDown();
+        }
+
+        @Override
+        public void rejected(OutboxEntry entry, String message) {
+            fail("Unexpected rejection: " + message);
+        }
+    }
+}
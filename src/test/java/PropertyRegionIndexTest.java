@@ -0,0 +1,80 @@
+import me.samarthh.protection.PropertyRegionIndex;
+import me.samarthh.protection.PropertyRegionIndex.Region;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PropertyRegionIndexTest {
+
+    @Test
+    public void testFootprintCoversAllFourCorners() {
+        // Length runs +x, breadth runs +z; the fourth corner is (10, 20)
+        Region square = Region.fromCorners("a", "world", 0, 0, 10, 0, 0, 20);
+        assertEquals(new Region("a", "world", 0, 0, 10, 20), square);
+
+        // A rotated footprint is bounded by its outermost corners
+        Region rotated = Region.fromCorners("b", "world", 0, 0, 5, 5, -5, 5);
+        assertEquals(new Region("b", "world", -5, 0, 5, 10), rotated);
+    }
+
+    @Test
+    public void testPointQueriesAcrossChunkBorders() {
+        PropertyRegionIndex index = new PropertyRegionIndex();
+        index.put(new Region("a", "world", -8, -8, 40, 8));
+        index.put(new Region("b", "world", 100, 100, 101, 101));
+
+        assertEquals("a", index.regionAt("world", -8, 0).id());
+        assertEquals("a", index.regionAt("world", 40, 8).id());
+        assertEquals("b", index.regionAt("world", 101, 100).id());
+        assertNull(index.regionAt("world", 41, 0));
+        assertNull(index.regionAt("world", 0, 9));
+        assertNull(index.regionAt("world_nether", 0, 0));
+    }
+
+    @Test
+    public void testOverlapQueries() {
+        PropertyRegionIndex index = new PropertyRegionIndex();
+        index.put(new Region("a", "world", 0, 0, 15, 15));
+
+        assertEquals("a", index.findOverlapping("world", 15, 15, 30, 30).id());
+        assertEquals("a", index.findOverlapping("world", -100, -100, 100, 100).id());
+        assertNull(index.findOverlapping("world", 16, 0, 30, 15));
+        assertNull(index.findOverlapping("world_nether", 0, 0, 15, 15));
+    }
+
+    @Test
+    public void testRemoveAndRenameUpdateEveryChunk() {
+        PropertyRegionIndex index = new PropertyRegionIndex();
+        index.put(new Region("request", "world", 0, 0, 64, 64));
+        assertTrue(index.rename("request", "property"));
+
+        assertEquals("property", index.regionAt("world", 64, 64).id());
+        assertNull(index.get("request"));
+
+        // Replacing a region moves it out of chunks it no longer covers
+        index.put(new Region("property", "world", 0, 0, 5, 5));
+        assertNull(index.regionAt("world", 64, 64));
+
+        assertNotNull(index.remove("property"));
+        assertNull(index.regionAt("world", 1, 1));
+        assertEquals(0, index.size());
+    }
+
+    @Test(timeout = 2000)
+    public void testHugeFootprintsAreNotListedPerChunk() {
+        PropertyRegionIndex index = new PropertyRegionIndex();
+        // Corners at opposite ends of the world border: about 14 trillion chunks
+        index.put(new Region("huge", "world", -30_000_000, -30_000_000, 30_000_000, 30_000_000));
+        index.put(new Region("small", "world_nether", 0, 0, 15, 15));
+
+        assertEquals("huge", index.regionAt("world", 29_999_999, -29_999_999).id());
+        assertEquals("huge", index.findOverlapping("world", 0, 0, 0, 0).id());
+        assertEquals("small", index.findOverlapping("world_nether", -30_000_000, -30_000_000, 30_000_000, 30_000_000).id());
+        assertNull(index.findOverlapping("world_nether", 16, -30_000_000, 30_000_000, 30_000_000));
+
+        assertTrue(index.rename("huge", "property"));
+        assertNotNull(index.remove("property"));
+        assertNull(index.regionAt("world", 0, 0));
+        assertNull(index.findOverlapping("world", -30_000_000, -30_000_000, 30_000_000, 30_000_000));
+    }
+}
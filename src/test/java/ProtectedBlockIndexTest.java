@@ -0,0 +1,233 @@
+import me.samarthh.protection.BlockKeys;
+import me.samarthh.protection.BulkBlockCheck;
+import me.samarthh.protection.LongHashSet;
+import me.samarthh.protection.ProtectedBlockIndex;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class ProtectedBlockIndexTest {
+
+    @Test
+    public void testPackRoundTrip() {
+        int[][] coords = {{0, 0, 0}, {-1, -64, -1}, {29999999, 319, -29999999}, {-30000000, -2048, 30000000 - 1}};
+        for (int[] c : coords) {
+            long key = BlockKeys.pack(c[0], c[1], c[2]);
+            assertEquals(c[0], BlockKeys.unpackX(key));
+            assertEquals(c[1], BlockKeys.unpackY(key));
+            assertEquals(c[2], BlockKeys.unpackZ(key));
+        }
+    }
+
+    @Test
+    public void testAddContainsRemove() {
+        ProtectedBlockIndex index = new ProtectedBlockIndex();
+
+        assertTrue(index.add("world", 10, 64, -5));
+        assertFalse(index.add("world", 10, 64, -5));
+        assertTrue(index.add("world_nether", 10, 64, -5));
+
+        assertTrue(index.contains("world", 10, 64, -5));
+        assertFalse(index.contains("world", 10, 65, -5));
+        assertFalse(index.contains("world_the_end", 10, 64, -5));
+        assertEquals(2, index.size());
+
+        assertTrue(index.remove("world", 10, 64, -5));
+        assertFalse(index.contains("world", 10, 64, -5));
+        assertNull(index.getChunk("world", 0, -1));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testChunkLoadAndUnloadBypassListener() {
+        ProtectedBlockIndex index = new ProtectedBlockIndex();
+        int[] notifications = new int[1];
+        index.setChangeListener(new ProtectedBlockIndex.ChangeListener() {
+            @Override
+            public void blockAdded(String world, int x, int y, int z) {
+                notifications[0]++;
+            }
+
+            @Override
+            public void blockRemoved(String world, int x, int y, int z) {
+                notifications[0]++;
+            }
+        });
+
+        index.loadChunk("world", 1, 2, new long[]{BlockKeys.pack(16, 64, 32), BlockKeys.pack(31, -10, 47)});
+        index.loadChunk("world", 1, 2, new long[]{BlockKeys.pack(16, 64, 32)});
+        index.add("world_nether", 0, 0, 0);
+        assertEquals(3, index.size());
+        assertTrue(index.contains("world", 31, -10, 47));
+
+        index.unloadChunk("world", 1, 2);
+        assertFalse(index.contains("world", 16, 64, 32));
+        assertEquals(1, index.size());
+
+        index.unloadWorld("world_nether");
+        assertEquals(0, index.size());
+        assertEquals(1, notifications[0]);
+    }
+
+    @Test
+    public void testRemovingUnloadedBlockIsReportedToListener() {
+        ProtectedBlockIndex index = new ProtectedBlockIndex();
+        List<String> removed = new ArrayList<>();
+        List<String> absent = new ArrayList<>();
+        index.setChangeListener(new ProtectedBlockIndex.ChangeListener() {
+            @Override
+            public void blockAdded(String world, int x, int y, int z) {
+            }
+
+            @Override
+            public void blockRemoved(String world, int x, int y, int z) {
+                removed.add(world + " " + x + "," + y + "," + z);
+            }
+
+            @Override
+            public void absentBlockRemoved(String world, int x, int y, int z) {
+                absent.add(world + " " + x + "," + y + "," + z);
+            }
+        });
+
+        // The chunk was unloaded, so its blocks are only in storage
+        index.loadChunk("world", 0, 0, new long[]{BlockKeys.pack(1, 64, 1)});
+        index.unloadChunk("world", 0, 0);
+        assertFalse(index.remove("world", 1, 64, 1));
+        assertEquals(List.of("world 1,64,1"), absent);
+        assertTrue(removed.isEmpty());
+
+        index.add("world", 2, 64, 2);
+        assertTrue(index.remove("world", 2, 64, 2));
+        assertEquals(List.of("world 2,64,2"), removed);
+        assertEquals(1, absent.size());
+    }
+
+    @Test
+    public void testFilterRebuildKeepsBlocksAddedDuringBuild() {
+        ProtectedBlockIndex index = new ProtectedBlockIndex();
+        for (int i = 0; i < 5000; i++) {
+            index.add("world", i, 64, -i);
+        }
+        assertTrue(index.filterNeedsRebuild());
+
+        List<Runnable> background = new ArrayList<>();
+        List<Runnable> mainThread = new ArrayList<>();
+        index.rebuildFilter(background::add, mainThread::add);
+        assertFalse(index.filterNeedsRebuild());
+        index.add("world_nether", 1, 2, 3);
+        background.forEach(Runnable::run);
+        mainThread.forEach(Runnable::run);
+
+        assertFalse(index.filterNeedsRebuild());
+        assertTrue(index.contains("world_nether", 1, 2, 3));
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(index.contains("world", i, 64, -i));
+        }
+
+        // The filter turns away nearly every unprotected block before the maps are consulted
+        for (int i = 0; i < 100_000; i++) {
+            assertFalse(index.contains("world", i, 65, i));
+        }
+        assertTrue(index.getFilterFalsePositiveRate() < 0.02);
+    }
+
+    @Test
+    public void testFilterRebuildCopiesKeysWhileIndexChanges() throws Exception {
+        ProtectedBlockIndex index = new ProtectedBlockIndex();
+        for (int i = 0; i < 200_000; i++) {
+            index.add("world", i, 64, i);
+        }
+        List<Runnable> mainThread = new ArrayList<>();
+        Thread[] copier = new Thread[1];
+        index.rebuildFilter(task -> (copier[0] = new Thread(task)).start(), mainThread::add);
+        // Chunks are created and dropped while the background thread copies the keys
+        for (int i = 0; i < 20_000; i++) {
+            index.add("world", -i - 1, 70, i);
+            index.remove("world", i, 64, i);
+            index.loadChunk("world_nether", i, 0, new long[]{BlockKeys.pack(i << 4, 1, 0)});
+        }
+        copier[0].join();
+        mainThread.forEach(Runnable::run);
+
+        assertEquals(220_000, index.size());
+        for (int i = 0; i < 20_000; i++) {
+            assertTrue(index.contains("world", -i - 1, 70, i));
+            assertTrue(index.contains("world_nether", i << 4, 1, 0));
+        }
+        for (int i = 20_000; i < 200_000; i++) {
+            assertTrue(index.contains("world", i, 64, i));
+        }
+    }
+
+    @Test
+    public void testRemovalsEventuallyTriggerRebuild() {
+        ProtectedBlockIndex index = new ProtectedBlockIndex();
+        for (int i = 0; i < 1000; i++) {
+            index.add("world", i, 64, 0);
+        }
+        for (int i = 0; i < 1000; i++) {
+            index.remove("world", i, 64, 0);
+        }
+        // Removed blocks keep their filter bits, so lookups of them are false positives
+        for (int i = 0; i < 10_000; i++) {
+            assertFalse(index.contains("world", i % 1000, 64, 0));
+        }
+        assertTrue(index.filterNeedsRebuild());
+    }
+
+    @Test
+    public void testBulkCheckAcrossChunks() {
+        ProtectedBlockIndex index = new ProtectedBlockIndex();
+        index.add("world", 15, 64, 15);
+        index.add("world", 16, 64, 16);
+        index.add("world", -1, 64, -1);
+        index.add("world_nether", 0, 64, 0);
+
+        // An explosion centred on a chunk corner touches four chunks in no particular order
+        BulkBlockCheck check = new BulkBlockCheck(index, "world");
+        int found = 0;
+        for (int x = -4; x <= 20; x++) {
+            for (int z = 20; z >= -4; z--) {
+                if (check.isProtected(x, 64, z)) {
+                    found++;
+                }
+            }
+        }
+        assertEquals(3, found);
+        assertTrue(check.isProtected(15, 64, 15));
+        assertFalse(check.isProtected(0, 64, 0));
+        // Chunks further away share a cache slot with nearer ones and must not be confused with them
+        index.add("world", 47, 64, 47);
+        assertTrue(new BulkBlockCheck(index, "world").isProtected(47, 64, 47));
+        assertFalse(check.isProtected(47, 64, 15));
+    }
+
+    @Test
+    public void testLongHashSetMatchesHashSet() {
+        Random random = new Random(42);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = BlockKeys.pack(random.nextInt(64) - 32, random.nextInt(16), random.nextInt(64) - 32);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(key), set.add(key));
+            } else {
+                assertEquals(expected.remove(key), set.remove(key));
+            }
+        }
+
+        assertEquals(expected.size(), set.size());
+        for (long key : expected) {
+            assertTrue(set.contains(key));
+        }
+        assertEquals(expected.size(), set.toArray().length);
+    }
+}
@@ -0,0 +1,84 @@
+import me.samarthh.api.ResponseCache;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ResponseCacheTest {
+
+    @Test
+    public void testConcurrentLookupsShareOneRequest() throws Exception {
+        ResponseCache<String, String> cache = new ResponseCache<>(16, 60_000, 0);
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<String> request = new CompletableFuture<>();
+
+        CompletableFuture<String> first = cache.get("token", key -> { loads.incrementAndGet(); return request; });
+        CompletableFuture<String> second = cache.get("token", key -> { loads.incrementAndGet(); return request; });
+        request.complete("profile");
+
+        assertEquals("profile", first.get());
+        assertEquals("profile", second.get());
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getCoalesced());
+
+        assertEquals("profile", cache.get("token", key -> CompletableFuture.completedFuture("other")).get());
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testFailuresAreNotCached() throws Exception {
+        ResponseCache<String, String> cache = new ResponseCache<>(16, 60_000, 0);
+
+        CompletableFuture<String> failed = cache.get("token",
+                key -> CompletableFuture.failedFuture(new IllegalStateException("backend down")));
+        assertTrue(failed.isCompletedExceptionally());
+
+        assertEquals("profile", cache.get("token", key -> CompletableFuture.completedFuture("profile")).get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testStaleValueIsServedWhileRefreshing() throws Exception {
+        ResponseCache<String, String> cache = new ResponseCache<>(16, 20, 60_000);
+        cache.get("token", key -> CompletableFuture.completedFuture("old")).get();
+        Thread.sleep(40);
+
+        CompletableFuture<String> refresh = new CompletableFuture<>();
+        assertEquals("old", cache.get("token", key -> refresh).get());
+        assertEquals(1, cache.getStaleHits());
+
+        refresh.complete("new");
+        assertEquals("new", cache.get("token", key -> CompletableFuture.completedFuture("unused")).get());
+    }
+
+    @Test
+    public void testInvalidateDiscardsInFlightLoad() throws Exception {
+        ResponseCache<String, String> cache = new ResponseCache<>(16, 60_000, 0);
+        CompletableFuture<String> request = new CompletableFuture<>();
+        CompletableFuture<String> before = cache.get("token", key -> request);
+
+        // E.g. a logout while the profile is being fetched
+        cache.invalidate("token");
+        request.complete("profile before logout");
+
+        assertEquals("profile before logout", before.get());
+        assertEquals(0, cache.size());
+        assertEquals("fresh", cache.get("token", key -> CompletableFuture.completedFuture("fresh")).get());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() throws Exception {
+        ResponseCache<String, String> cache = new ResponseCache<>(2, 60_000, 0);
+        cache.get("a", key -> CompletableFuture.completedFuture("a")).get();
+        cache.get("b", key -> CompletableFuture.completedFuture("b")).get();
+        cache.get("a", key -> CompletableFuture.completedFuture("a2")).get();
+        cache.get("c", key -> CompletableFuture.completedFuture("c")).get();
+
+        assertEquals(2, cache.size());
+        assertEquals("a", cache.get("a", key -> CompletableFuture.completedFuture("a3")).get());
+        assertEquals("b2", cache.get("b", key -> CompletableFuture.completedFuture("b2")).get());
+    }
+}
@@ -1,11 +1,18 @@
 import me.samarthh.managers.UserManager;
+import me.samarthh.storage.UserDatabase;
 import me.samarthh.api.SioseApiClient.PropertyRequestResponse;
 import com.google.gson.Gson;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 
@@ -44,6 +51,124 @@ public class UserManagerTest {
         assertNull(userManager.getToken(uuid));
     }
 
+    @Test
+    public void testCachedSessionNeverLoads() {
+        UUID uuid = UUID.randomUUID();
+        userManager.setToken(uuid, "preloaded-token");
+        userManager.close();
+
+        userManager = new UserManager();
+        assertNull(userManager.getCachedSession(uuid));
+
+        userManager.preloadSession(uuid);
+        UserManager.Session session = userManager.getCachedSession(uuid);
+        assertTrue(session.isAuthenticated());
+        assertEquals("preloaded-token", session.getToken());
+
+        // Login and logout commands update the snapshot directly
+        userManager.logout(uuid);
+        assertFalse(userManager.getCachedSession(uuid).isAuthenticated());
+        userManager.unloadSession(uuid);
+        userManager.setToken(uuid, "new-token");
+        assertEquals("new-token", userManager.getCachedSession(uuid).getToken());
+    }
+
+    @Test
+    public void testReadsNeverWaitForTheDatabase() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        userManager.setToken(uuid, "stored-token");
+        userManager.close();
+
+        // Not cached: reads as logged out and loads in the background
+        userManager = new UserManager();
+        assertNull(userManager.getSessionOrLoad(uuid));
+        assertTrue(userManager.loadSessionAsync(uuid).get(5, TimeUnit.SECONDS).isAuthenticated());
+        assertEquals("stored-token", userManager.getToken(uuid));
+
+        // Cached: answered without another database read
+        assertTrue(userManager.loadSessionAsync(uuid).isDone());
+    }
+
+    @Test
+    public void testUnloadDuringLoadDoesNotCacheSession() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        CompletableFuture<UserManager.Session> load = userManager.loadSessionAsync(uuid);
+        userManager.unloadSession(uuid);
+        load.get(5, TimeUnit.SECONDS);
+
+        assertNull(userManager.getCachedSession(uuid));
+    }
+
+    @Test
+    public void testOfflinePlayersAreNeverLoaded() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        userManager.setToken(uuid, "stored-token");
+        userManager.close();
+
+        // Joined and quit again; later lookups (e.g. for a property owner) must not load them back
+        userManager = new UserManager();
+        userManager.loadSessionAsync(uuid).get(5, TimeUnit.SECONDS);
+        userManager.unloadSession(uuid);
+        assertNull(userManager.getSessionOrLoad(uuid));
+        assertFalse(userManager.isAuthenticated(uuid));
+        Thread.sleep(200);
+        assertNull(userManager.getCachedSession(uuid));
+    }
+
+    @Test
+    public void testWritesAreFlushedOnClose() {
+        UUID uuid = UUID.randomUUID();
+        userManager.setToken(uuid, "persisted-token");
+        userManager.close();
+
+        userManager = new UserManager();
+        userManager.preloadSession(uuid);
+        assertTrue(userManager.isAuthenticated(uuid));
+        assertEquals("persisted-token", userManager.getToken(uuid));
+
+        userManager.logout(uuid);
+        assertFalse(userManager.isAuthenticated(uuid));
+        assertNull(userManager.getToken(uuid));
+    }
+
+    @Test
+    public void testSavesRacingCloseAlwaysComplete() throws Exception {
+        File file = File.createTempFile("users", ".db");
+        file.deleteOnExit();
+        for (int round = 0; round < 10; round++) {
+            UserDatabase database = new UserDatabase(file.getPath(), 1);
+            List<CompletableFuture<Void>> saves = new ArrayList<>();
+            List<Thread> savers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Thread saver = new Thread(() -> {
+                    for (int i = 0; i < 5000; i++) {
+                        CompletableFuture<Void> save = database.save(UUID.randomUUID(), "token", true);
+                        synchronized (saves) {
+                            saves.add(save);
+                        }
+                    }
+                });
+                saver.start();
+                savers.add(saver);
+            }
+            database.close();
+            for (Thread saver : savers) {
+                saver.join();
+            }
+
+            // Every write is either committed or refused; none is left waiting forever
+            synchronized (saves) {
+                for (CompletableFuture<Void> save : saves) {
+                    try {
+                        save.get(1, TimeUnit.SECONDS);
+                    } catch (ExecutionException e) {
+                        assertTrue(e.getCause() instanceof IllegalStateException);
+                    }
+                }
+            }
+        }
+    }
+
     @Test
     public void testPropertyRequestResponseParsing() {
         // Test the actual API response format